@@ -0,0 +1,108 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Sink writing reports to a delegate sink on a background daemon thread (property {@code properties.logger.output.async}) :
+ * the thread which starts the application does not wait for synchronous appenders or for I/O.
+ * <br/>
+ * Reports are computed on the calling thread, then handed over to the background thread through a {@link SpscRingBuffer}.
+ * The background thread is started when a report is queued and stops once the buffer is empty. While it runs, a shutdown
+ * hook waits at most {@link #FLUSH_TIMEOUT} for the remaining reports to be written before the JVM stops. If the buffer is
+ * full, the report is written to the delegate on the calling thread.
+ * <br/>
+ * One sink is created per {@link PropertiesLoggerPolicy} and shared by its passes : reports are offered under the lock of
+ * the sink, so the buffer keeps a single producer even if passes run concurrently.
+ */
+final class AsyncReportSink implements ReportSink {
+
+    static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(2);
+    static final int CAPACITY = 16;
+    private static final LocalLogger log = new LocalLogger(AsyncReportSink.class);
+
+    private final ReportSink delegate;
+    private final SpscRingBuffer<String> buffer = new SpscRingBuffer<>(CAPACITY);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile @Nullable Thread drainingThread;
+
+    AsyncReportSink(ReportSink delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(Supplier<String> report) {
+        final String content = report.get();
+        if (!offer(content)) {
+            log.debug(() -> "Buffer of asynchronous report sink is full : report is written synchronously");
+            delegate.write(() -> content);
+            return;
+        }
+        startDrainingIfIdle();
+    }
+
+    private synchronized boolean offer(String content) {
+        return buffer.offer(content);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public boolean supportsColoration() {
+        return delegate.supportsColoration();
+    }
+
+    private void startDrainingIfIdle() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        final Thread shutdownHook = new Thread(() -> awaitFlush(FLUSH_TIMEOUT), "properties-logger-report-sink-flush");
+        final Thread thread = new Thread(() -> drain(shutdownHook), "properties-logger-report-sink");
+        thread.setDaemon(true);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        drainingThread = thread;
+        thread.start();
+    }
+
+    private void drain(Thread shutdownHook) {
+        do {
+            String report;
+            while ((report = buffer.poll()) != null) {
+                final String content = report;
+                delegate.write(() -> content);
+            }
+            draining.set(false);
+            // a report queued after the last poll but before draining was reset must not wait for the next write
+        } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+        removeShutdownHook(shutdownHook);
+    }
+
+    private static void removeShutdownHook(Thread shutdownHook) {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the JVM is shutting down : the hook is running or has run
+        }
+    }
+
+    /**
+     * @return true if all queued reports were written within the timeout
+     */
+    boolean awaitFlush(Duration timeout) {
+        final Thread thread = drainingThread;
+        if (thread != null) {
+            try {
+                thread.join(timeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return buffer.isEmpty() && !draining.get();
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.PropertySource;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Optional SPI for a {@link PropertySource} which can provide the values of many properties in one call (for example a
+ * property source backed by a remote store which can serve them in one round-trip).
+ * <br/>
+ * When a property source of the environment implements this interface, {@link PropertiesLogger} fetches once, within
+ * the resolution deadlines, the raw values of all the properties to display from this source with
+ * {@link #getProperties(Collection)}. These raw values are then resolved like values of other property sources. Keys only
+ * referenced by placeholders, and all keys if the call does not complete in time, are requested key by key.
+ */
+public interface BatchPropertyLookup {
+
+    /**
+     * @param names names of the properties whose raw values are requested
+     * @return the raw values (as {@link PropertySource#getProperty(String)} would return them) of the requested properties
+     * known by this property source, by names. Unknown names can be missing in the map or mapped to {@code null}
+     */
+    Map<String, @Nullable Object> getProperties(Collection<String> names);
+}
@@ -0,0 +1,83 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.origin.Origin;
+import org.springframework.core.env.PropertySource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Property sources of the environment implementing {@link BatchPropertyLookup}, found during the enumeration of the property
+ * sources, and their values fetched in bulk during one logging pass : a layer of raw values consulted by the resolution of
+ * the pass ({@link PlaceholderGraph}) instead of requesting these property sources.
+ * <br/>
+ * Raw values of the keys to display are fetched from each {@link BatchPropertyLookup} source with one call (see
+ * {@link #prefetch(Collection)}). Other keys (keys only referenced by placeholders, or all keys if the prefetch did not
+ * complete within the resolution deadlines) are requested key by key. Prefetched values are looked up with the exact names
+ * of the keys. While there are {@link BatchPropertyLookup} sources, the origins of values are recorded during their
+ * resolution, so that these sources are not requested again to find origins.
+ */
+final class BatchPropertyLookups {
+
+    private final List<PropertySource<?>> batchPropertySources = new ArrayList<>();
+    private volatile Prefetched prefetched = Prefetched.NONE;
+    private final Map<String, Origin> originByResolvedKey = new ConcurrentHashMap<>();
+
+    void registerIfBatch(PropertySource<?> propertySource) {
+        if (propertySource instanceof BatchPropertyLookup) {
+            batchPropertySources.add(propertySource);
+        }
+    }
+
+    boolean isEmpty() {
+        return batchPropertySources.isEmpty();
+    }
+
+    /**
+     * Fetches the raw values of the keys from each {@link BatchPropertyLookup} source with one call per source. Values
+     * are used once all sources returned.
+     */
+    void prefetch(Collection<String> keys) {
+        final Map<PropertySource<?>, Map<String, @Nullable Object>> valuesBySource = new IdentityHashMap<>();
+        for (PropertySource<?> batchPropertySource : batchPropertySources) {
+            valuesBySource.put(batchPropertySource, ((BatchPropertyLookup) batchPropertySource).getProperties(keys));
+        }
+        prefetched = new Prefetched(Set.copyOf(keys), valuesBySource);
+    }
+
+    /**
+     * @return true if the value of the key was prefetched from the property source
+     */
+    boolean isPrefetched(PropertySource<?> propertySource, String key) {
+        final Prefetched currentPrefetched = prefetched;
+        return currentPrefetched.valuesBySource().containsKey(propertySource) && currentPrefetched.keys().contains(key);
+    }
+
+    @Nullable Object prefetchedValueOf(PropertySource<?> propertySource, String key) {
+        return prefetched.valuesBySource().get(propertySource).get(key);
+    }
+
+    /**
+     * Records the origin of the value of a key when it is resolved, so that the property sources are not requested again
+     * to find it
+     */
+    void recordOrigin(String key, @Nullable Origin origin) {
+        if (origin != null) {
+            originByResolvedKey.put(key, origin);
+        }
+    }
+
+    /**
+     * @return the origin of the value of the key if it was recorded during its resolution, an empty optional otherwise
+     */
+    Optional<String> originOf(String key) {
+        return Optional.ofNullable(originByResolvedKey.get(key))
+                .map(origin -> "FROM " + origin);
+    }
+
+    private record Prefetched(Set<String> keys, Map<PropertySource<?>, Map<String, @Nullable Object>> valuesBySource) {
+
+        static final Prefetched NONE = new Prefetched(Set.of(), Map.of());
+    }
+}
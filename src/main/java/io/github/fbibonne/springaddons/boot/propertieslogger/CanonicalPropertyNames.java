@@ -0,0 +1,85 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Canonical forms ({@link ConfigurationPropertyName}) of the raw property names found in property sources, so that relaxed
+ * forms of a same property ({@code SPRING_DATASOURCE_URL} in environment variables, {@code spring.dataSource.url} ...)
+ * are recognized as one property. Names of {@link SystemEnvironmentPropertySource} are adapted with {@code _} as separator,
+ * others with {@code .}.
+ * <br/>
+ * Canonical forms are cached : each raw name is parsed once during a logging pass. The caches are concurrent maps, as
+ * names are also canonicalized by the resolutions running on the threads of {@link ResolutionDeadlines}.
+ */
+final class CanonicalPropertyNames {
+
+    private final boolean relaxedDeduplicationEnabled;
+    private final Map<String, ConfigurationPropertyName> canonicalNamesOfDottedNames = new ConcurrentHashMap<>();
+    private final Map<String, ConfigurationPropertyName> canonicalNamesOfEnvironmentNames = new ConcurrentHashMap<>();
+    private final Map<String, ConfigurationPropertyName> canonicalNamesOfWinningKeys = new ConcurrentHashMap<>();
+
+    /**
+     * @param relaxedDeduplicationEnabled value of property {@code properties.logger.relaxed-names.enabled}
+     */
+    CanonicalPropertyNames(boolean relaxedDeduplicationEnabled) {
+        this.relaxedDeduplicationEnabled = relaxedDeduplicationEnabled;
+    }
+
+    boolean isRelaxedDeduplicationEnabled() {
+        return relaxedDeduplicationEnabled;
+    }
+
+    ConfigurationPropertyName canonicalNameOf(String propertyName, PropertySource<?> propertySource) {
+        if (propertySource instanceof SystemEnvironmentPropertySource) {
+            return canonicalNamesOfEnvironmentNames.computeIfAbsent(propertyName, name -> ConfigurationPropertyName.adapt(name, '_'));
+        }
+        return canonicalNameOf(propertyName);
+    }
+
+    ConfigurationPropertyName canonicalNameOf(String propertyName) {
+        return canonicalNamesOfDottedNames.computeIfAbsent(propertyName, name -> ConfigurationPropertyName.adapt(name, '.'));
+    }
+
+    /**
+     * Deduplicates the names of the property sources by their canonical forms. For each canonical form, the winning key is
+     * the raw name found in the property source with the highest precedence : it is the one which is resolved and displayed.
+     * Names without canonical form are kept as is.
+     *
+     * @param propertyNamesBySource names of properties by property source names, in precedence order
+     * @param propertySourceByName  provides a property source from its name
+     * @param allowedName           filter applied to canonical forms and raw names : a key is kept if one of them is allowed
+     * @return winning keys in precedence order of the property source which provided them
+     */
+    Stream<String> winningKeys(Map<String, String[]> propertyNamesBySource, Function<String, PropertySource<?>> propertySourceByName, Predicate<String> allowedName) {
+        final Map<Object, String> winningKeysByIdentity = new LinkedHashMap<>();
+        propertyNamesBySource.forEach((propertySourceName, propertyNames) -> {
+            final PropertySource<?> propertySource = propertySourceByName.apply(propertySourceName);
+            for (String propertyName : propertyNames) {
+                ConfigurationPropertyName canonicalName = canonicalNameOf(propertyName, propertySource);
+                if (canonicalName.isEmpty()) {
+                    winningKeysByIdentity.putIfAbsent(propertyName, propertyName);
+                } else if (!winningKeysByIdentity.containsKey(canonicalName) && (allowedName.test(canonicalName.toString()) || allowedName.test(propertyName))) {
+                    winningKeysByIdentity.put(canonicalName, propertyName);
+                    canonicalNamesOfWinningKeys.put(propertyName, canonicalName);
+                }
+            }
+        });
+        return winningKeysByIdentity.values().stream()
+                .filter(key -> canonicalNamesOfWinningKeys.containsKey(key) || allowedName.test(key));
+    }
+
+    /**
+     * @return the canonical form of a key returned by {@link #winningKeys(Map, Function, Predicate)}
+     */
+    Optional<ConfigurationPropertyName> canonicalNameOfWinningKey(String key) {
+        return Optional.ofNullable(canonicalNamesOfWinningKeys.get(key));
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.util.*;
+
+/**
+ * CRaC resource which reports the properties whose displayed values changed between the logging of properties and the
+ * restore of the application from a checkpoint (for example environment variables or secrets of the restored instance).
+ * It is registered after the logging of properties only if {@code org.crac} is on the classpath and if
+ * {@code properties.logger.checkpoint-restore.enabled} is {@code true} (default value).
+ * <br/>
+ * The snapshot of the displayed values is the one of the logged properties. After the restore, only these keys are resolved
+ * again (property sources are not enumerated again) and the properties whose displayed values changed are logged.
+ * <br/>
+ * Contexts of org.crac only keep weak references to their resources : the resource is also added as a listener of the
+ * {@link SpringApplication} so that the application context keeps it alive, and not beyond. Once the context is closed,
+ * the resource does not report anything anymore.
+ */
+final class CheckpointRestoreResource implements Resource, ApplicationListener<ContextClosedEvent> {
+
+    private static final LocalLogger log = new LocalLogger(CheckpointRestoreResource.class);
+
+    private final PropertiesLogger propertiesLogger;
+    private final Map<String, @Nullable String> displayedValuesBeforeCheckpoint;
+    private volatile boolean closed;
+
+    CheckpointRestoreResource(PropertiesLogger propertiesLogger, List<DisplayedProperty> displayedProperties) {
+        this.propertiesLogger = propertiesLogger;
+        this.displayedValuesBeforeCheckpoint = new LinkedHashMap<>();
+        displayedProperties.forEach(displayedProperty -> displayedValuesBeforeCheckpoint.put(displayedProperty.key(), displayedProperty.value()));
+    }
+
+    static void register(SpringApplication springApplication, PropertiesLogger propertiesLogger, List<DisplayedProperty> displayedProperties) {
+        CheckpointRestoreResource resource = new CheckpointRestoreResource(propertiesLogger, displayedProperties);
+        Core.getGlobalContext().register(resource);
+        springApplication.addListeners(resource);
+        log.debug(() -> "Resource registered to report properties changed after restore from a checkpoint");
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        if (propertiesLogger.abstractEnvironment.wraps(event.getApplicationContext().getEnvironment())) {
+            closed = true;
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(@Nullable Context<? extends Resource> context) {
+        log.trace(() -> "Snapshot of " + displayedValuesBeforeCheckpoint.size() + " properties kept since their logging");
+    }
+
+    @Override
+    public void afterRestore(@Nullable Context<? extends Resource> context) {
+        if (closed) {
+            return;
+        }
+        List<String> changedLines = propertiesLogger.toDisplayedProperties(displayedValuesBeforeCheckpoint.keySet()).stream()
+                .filter(displayedProperty -> !Objects.equals(displayedValuesBeforeCheckpoint.get(displayedProperty.key()), displayedProperty.value()))
+                .map(displayedProperty -> displayedProperty.line() + " (before checkpoint : " + displayedValuesBeforeCheckpoint.get(displayedProperty.key()) + ")")
+                .toList();
+        propertiesLogger.reportSink.write(() -> changedLines.isEmpty() ? "No property changed after restore from checkpoint"
+                : """
+
+                %1$s
+                Properties changed after restore from checkpoint :
+                %2$s
+                %1$s""".formatted(PropertiesLogger.SEPARATION_LINE, String.join(System.lineSeparator(), changedLines)));
+    }
+}
@@ -20,25 +20,56 @@ class Colorizer {
     private static final String ANSI_OPEN = "\u001B[";
     private static final String ANSI_CLOSE = "m";
     private static final String ANSI_RESET = ANSI_OPEN + AnsiStyle.NORMAL + ANSI_CLOSE;
+    private static final AnsiElement[] PROPERTY_NAME_STYLES = {AnsiStyle.BOLD, AnsiColor.CYAN};
+    private static final AnsiElement[] VALUE_STYLES = {AnsiStyle.UNDERLINE, AnsiColor.YELLOW};
+    private static final AnsiElement[] ORIGIN_STYLES = {AnsiStyle.BOLD, AnsiStyle.ITALIC, AnsiColor.MAGENTA};
+    static final Colorizer NO_COLORATION = new Colorizer(true);
 
     private final BiFunction<@Nullable String, AnsiElement[], String> styleApplierIfEnabled;
+    private final boolean colorationDisabled;
+    private final int propertyNameColorationLength;
+    private final int valueColorationLength;
+    private final int originColorationLength;
 
     Colorizer(boolean colorationDisabled) {
+        this.colorationDisabled = colorationDisabled;
         this.styleApplierIfEnabled = colorationDisabled
                 ? Colorizer::noColoration
                 : Colorizer::applyStyles;
+        this.propertyNameColorationLength = colorationDisabled ? 0 : applyStyles("", PROPERTY_NAME_STYLES).length();
+        this.valueColorationLength = colorationDisabled ? 0 : applyStyles("", VALUE_STYLES).length();
+        this.originColorationLength = colorationDisabled ? 0 : applyStyles("", ORIGIN_STYLES).length();
+    }
+
+    boolean isColorationDisabled() {
+        return colorationDisabled;
     }
 
     String colorizePropertyNameIfEnabled(String propertyName) {
-        return applyStylesIfEnabled(propertyName, AnsiStyle.BOLD, AnsiColor.CYAN);
+        return applyStylesIfEnabled(propertyName, PROPERTY_NAME_STYLES);
+    }
+
+    /**
+     * @return the number of characters (ASCII) added to a property name by its coloration
+     */
+    int propertyNameColorationLength() {
+        return propertyNameColorationLength;
     }
 
     String colorizeValueIfEnabled(@Nullable String value) {
-        return applyStylesIfEnabled(value, AnsiStyle.UNDERLINE, AnsiColor.YELLOW);
+        return applyStylesIfEnabled(value, VALUE_STYLES);
+    }
+
+    int valueColorationLength() {
+        return valueColorationLength;
     }
 
     String colorizeOriginIfEnabled(String origin) {
-        return applyStylesIfEnabled(origin, AnsiStyle.BOLD, AnsiStyle.ITALIC, AnsiColor.MAGENTA);
+        return applyStylesIfEnabled(origin, ORIGIN_STYLES);
+    }
+
+    int originColorationLength() {
+        return originColorationLength;
     }
 
     String colorizeHeaderIfEnabled(String header) {
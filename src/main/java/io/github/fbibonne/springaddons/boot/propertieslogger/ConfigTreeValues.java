@@ -0,0 +1,105 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.env.ConfigTreePropertySource;
+import org.springframework.boot.origin.OriginProvider;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+/**
+ * Reading of the values of {@link ConfigTreePropertySource} (imported with {@code spring.config.import=configtree:...}) :
+ * each value is backed by a file, which may be a large certificate or keystore.
+ * <ul>
+ *     <li>values of masked keys are not read at all (unless masked values are displayed as fingerprints, see
+ *     {@link ValueFingerprinter})</li>
+ *     <li>other values are read through a {@link ReadableByteChannel} into a buffer of at most
+ *     {@code properties.logger.config-tree.max-value-bytes} + 1 bytes : if the file is larger than this cap, its content is
+ *     replaced by its size and path</li>
+ * </ul>
+ * A trailing new line is trimmed from the content as it is by the value itself, depending on the options of the config
+ * tree.
+ */
+final class ConfigTreeValues {
+
+    /**
+     * Values read entirely like {@link ConfigTreePropertySource.Value#toString()}
+     */
+    static final ConfigTreeValues UNCAPPED = new ConfigTreeValues(-1, key -> false);
+    private static final LocalLogger log = new LocalLogger(ConfigTreeValues.class);
+
+    private final long maxValueBytes;
+    private final Predicate<String> maskedWithoutReading;
+
+    /**
+     * @param maxValueBytes        maximum number of bytes read from a file, negative for no limit
+     * @param maskedWithoutReading keys whose values are masked without being read
+     */
+    ConfigTreeValues(long maxValueBytes, Predicate<String> maskedWithoutReading) {
+        this.maxValueBytes = maxValueBytes;
+        this.maskedWithoutReading = maskedWithoutReading;
+    }
+
+    Content contentOf(String key, ConfigTreePropertySource.Value value) {
+        if (maskedWithoutReading.test(key)) {
+            return new Content(PropertiesLogger.MASK, false);
+        }
+        if (maxValueBytes < 0) {
+            return new Content(value.toString(), false);
+        }
+        final Path file = fileOf(value);
+        try (ReadableByteChannel channel = file == null ? Channels.newChannel(value.getInputStream()) : Files.newByteChannel(file)) {
+            final long expectedSize = file == null ? maxValueBytes : Math.min(Files.size(file), maxValueBytes);
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(expectedSize + 1, Integer.MAX_VALUE - 8));
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read >= 0 && buffer.hasRemaining());
+            if (buffer.position() > maxValueBytes) {
+                log.debug(() -> "Value of " + key + " larger than " + maxValueBytes + " bytes : its content is not displayed");
+                return new Content(file == null ? "<more than " + maxValueBytes + " bytes>"
+                        : "<" + Files.size(file) + " bytes in file " + file + ">", true);
+            }
+            buffer.flip();
+            return new Content(withTrailingNewLineAsBound(StandardCharsets.UTF_8.decode(buffer).toString(), value), false);
+        } catch (IOException | RuntimeException e) {
+            return new Content("Error while reading value of " + key + " : " + e.getMessage(), false);
+        }
+    }
+
+    private static @Nullable Path fileOf(ConfigTreePropertySource.Value value) {
+        if (value instanceof OriginProvider originProvider && originProvider.getOrigin() instanceof TextResourceOrigin textResourceOrigin) {
+            final Resource resource = textResourceOrigin.getResource();
+            try {
+                return resource != null && resource.isFile() ? resource.getFile().toPath() : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether a trailing new line is trimmed depends on the options of the config tree
+     * ({@link ConfigTreePropertySource.Option#AUTO_TRIM_TRAILING_NEW_LINE}), which are only known by the value : a content
+     * ending with a new line, which is below the cap, is then read again through {@link ConfigTreePropertySource.Value#toString()}
+     * so that the displayed value is the one bound by Spring
+     */
+    private static String withTrailingNewLineAsBound(String content, ConfigTreePropertySource.Value value) {
+        return content.endsWith("\n") ? value.toString() : content;
+    }
+
+    /**
+     * @param overCap true if the text is the size and the path of a file larger than the cap instead of its content
+     */
+    record Content(String text, boolean overCap) {
+    }
+}
@@ -0,0 +1,291 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Sorted array of the names of the properties declared in all {@value #METADATA_LOCATION} files of a classloader (the
+ * file of this library included). It is used to probe property sources which cannot list their keys : only keys of the
+ * index are requested to these sources.
+ * <br/>
+ * Metadata files are parsed in parallel with a streaming parser which keeps only the names of the elements of the array
+ * {@code properties}. Indexes are cached by classloader.
+ */
+final class ConfigurationMetadataIndex {
+
+    static final String METADATA_LOCATION = "META-INF/spring-configuration-metadata.json";
+    private static final LocalLogger log = new LocalLogger(ConfigurationMetadataIndex.class);
+    private static final Map<ClassLoader, ConfigurationMetadataIndex> INDEXES_BY_CLASSLOADER = new ConcurrentReferenceHashMap<>();
+
+    private final String[] sortedNames;
+
+    private ConfigurationMetadataIndex(String[] sortedNames) {
+        this.sortedNames = sortedNames;
+    }
+
+    static ConfigurationMetadataIndex of(@Nullable ClassLoader classLoader) {
+        final ClassLoader effectiveClassLoader = classLoader == null ? ClassUtils.getDefaultClassLoader() : classLoader;
+        if (effectiveClassLoader == null) {
+            return new ConfigurationMetadataIndex(new String[0]);
+        }
+        return INDEXES_BY_CLASSLOADER.computeIfAbsent(effectiveClassLoader, ConfigurationMetadataIndex::build);
+    }
+
+    private static ConfigurationMetadataIndex build(ClassLoader classLoader) {
+        final List<URL> metadataFiles;
+        try {
+            metadataFiles = Collections.list(classLoader.getResources(METADATA_LOCATION));
+        } catch (IOException e) {
+            log.warn(() -> "Unable to list " + METADATA_LOCATION + " files : no key will be probed in non enumerable property sources. Cause : " + e);
+            return new ConfigurationMetadataIndex(new String[0]);
+        }
+        final String[] sortedNames = metadataFiles.parallelStream()
+                .flatMap(ConfigurationMetadataIndex::propertyNamesOf)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+        log.debug(() -> sortedNames.length + " properties names indexed from " + metadataFiles.size() + " " + METADATA_LOCATION + " files");
+        return new ConfigurationMetadataIndex(sortedNames);
+    }
+
+    private static Stream<String> propertyNamesOf(URL metadataFile) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(metadataFile.openStream(), StandardCharsets.UTF_8))) {
+            return new PropertyNamesParser(reader).parse().stream();
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            log.debug(() -> "Unable to parse " + metadataFile + " : its properties are not indexed. Cause : " + e);
+            return Stream.empty();
+        }
+    }
+
+    int size() {
+        return sortedNames.length;
+    }
+
+    /**
+     * @return the indexed names starting with one of the prefixes, in alphabetical order, without duplicates
+     */
+    Stream<String> namesWithPrefixes(Collection<String> prefixes) {
+        final SortedSet<String> names = new TreeSet<>();
+        for (String prefix : prefixes) {
+            int position = Arrays.binarySearch(sortedNames, prefix);
+            for (int i = position < 0 ? -position - 1 : position; i < sortedNames.length && sortedNames[i].startsWith(prefix); i++) {
+                names.add(sortedNames[i]);
+            }
+        }
+        return names.stream();
+    }
+
+    /**
+     * Streaming JSON parser which only collects values of the {@code name} fields of the objects in the array
+     * {@code properties} of the root object : other values are skipped without being built.
+     */
+    static final class PropertyNamesParser {
+
+        private final Reader reader;
+        private final List<String> names = new ArrayList<>();
+        private final StringBuilder buffer = new StringBuilder();
+        private int pushedBack = -2;
+
+        PropertyNamesParser(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> parse() throws IOException {
+            expect('{');
+            parseMembers(this::parseRootMember);
+            return names;
+        }
+
+        private void parseRootMember(String key) throws IOException {
+            if ("properties".equals(key) && peekNonWhitespace() == '[') {
+                expect('[');
+                parseElements(() -> {
+                    if (peekNonWhitespace() == '{') {
+                        expect('{');
+                        parseMembers(this::parsePropertyMember);
+                    } else {
+                        skipValue();
+                    }
+                });
+            } else {
+                skipValue();
+            }
+        }
+
+        private void parsePropertyMember(String key) throws IOException {
+            if ("name".equals(key) && peekNonWhitespace() == '"') {
+                read();
+                names.add(readString());
+            } else {
+                skipValue();
+            }
+        }
+
+        /**
+         * Parses members of an object whose {@code '{'} was consumed, up to its {@code '}'}
+         */
+        private void parseMembers(MemberParser memberParser) throws IOException {
+            if (peekNonWhitespace() == '}') {
+                read();
+                return;
+            }
+            while (true) {
+                expect('"');
+                final String key = readString();
+                expect(':');
+                memberParser.parse(key);
+                final int separator = readNonWhitespace();
+                if (separator == '}') {
+                    return;
+                }
+                if (separator != ',') {
+                    throw unexpected(separator);
+                }
+            }
+        }
+
+        /**
+         * Parses elements of an array whose {@code '['} was consumed, up to its {@code ']'}
+         */
+        private void parseElements(ElementParser elementParser) throws IOException {
+            if (peekNonWhitespace() == ']') {
+                read();
+                return;
+            }
+            while (true) {
+                elementParser.parse();
+                final int separator = readNonWhitespace();
+                if (separator == ']') {
+                    return;
+                }
+                if (separator != ',') {
+                    throw unexpected(separator);
+                }
+            }
+        }
+
+        private void skipValue() throws IOException {
+            final int first = readNonWhitespace();
+            switch (first) {
+                case '{' -> parseMembers(key -> skipValue());
+                case '[' -> parseElements(this::skipValue);
+                case '"' -> skipString();
+                case -1 -> throw unexpected(first);
+                default -> {
+                    int next = read();
+                    while (next != -1 && next != ',' && next != '}' && next != ']' && !Character.isWhitespace(next)) {
+                        next = read();
+                    }
+                    pushedBack = next;
+                }
+            }
+        }
+
+        /**
+         * Reads a string whose opening quote was consumed
+         */
+        private String readString() throws IOException {
+            buffer.setLength(0);
+            int c = read();
+            while (c != '"') {
+                buffer.append((char) (c == '\\' ? unescape(read()) : checkNotEnd(c)));
+                c = read();
+            }
+            return buffer.toString();
+        }
+
+        /**
+         * Skips a string whose opening quote was consumed
+         */
+        private void skipString() throws IOException {
+            int c = read();
+            while (c != '"') {
+                if (c == '\\') {
+                    unescape(read());
+                }
+                c = checkNotEnd(read());
+            }
+        }
+
+        private static int checkNotEnd(int c) {
+            if (c == -1) {
+                throw unexpected(c);
+            }
+            return c;
+        }
+
+        private int unescape(int escaped) throws IOException {
+            return switch (escaped) {
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'u' -> {
+                    int codeUnit = 0;
+                    for (int i = 0; i < 4; i++) {
+                        codeUnit = (codeUnit << 4) | Character.digit(read(), 16);
+                    }
+                    yield codeUnit;
+                }
+                case -1 -> throw unexpected(escaped);
+                default -> escaped;
+            };
+        }
+
+        private void expect(char expected) throws IOException {
+            final int c = readNonWhitespace();
+            if (c != expected) {
+                throw unexpected(c);
+            }
+        }
+
+        private int peekNonWhitespace() throws IOException {
+            final int c = readNonWhitespace();
+            pushedBack = c;
+            return c;
+        }
+
+        private int readNonWhitespace() throws IOException {
+            int c = read();
+            while (c != -1 && Character.isWhitespace(c)) {
+                c = read();
+            }
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                final int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private static IllegalStateException unexpected(int c) {
+            return new IllegalStateException(c == -1 ? "Unexpected end of JSON" : "Unexpected character '" + (char) c + "' in JSON");
+        }
+
+        @FunctionalInterface
+        private interface MemberParser {
+            void parse(String key) throws IOException;
+        }
+
+        @FunctionalInterface
+        private interface ElementParser {
+            void parse() throws IOException;
+        }
+    }
+}
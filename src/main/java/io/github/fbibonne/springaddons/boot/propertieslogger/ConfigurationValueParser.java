@@ -0,0 +1,72 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.springframework.util.NumberUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Parses the raw values of the configuration properties of the library ({@code properties.logger.*}) without the
+ * conversion service of the environment : only the types declared in {@code META-INF/spring-configuration-metadata.json}
+ * are supported. Parsing follows the rules of the default converters of Spring :
+ * <ul>
+ *     <li>{@link Set} : comma delimited list whose elements are trimmed</li>
+ *     <li>{@code boolean} : {@code true, on, yes, 1} or {@code false, off, no, 0} ignoring case</li>
+ *     <li>{@code int}, {@code long}, {@code double} : trimmed numbers (decimal or hexadecimal for integers)</li>
+ * </ul>
+ * No reflection is involved, so that reading the configuration is cheap and needs no metadata for native images.
+ */
+final class ConfigurationValueParser {
+
+    private static final Set<String> TRUE_VALUES = Set.of("true", "on", "yes", "1");
+    private static final Set<String> FALSE_VALUES = Set.of("false", "off", "no", "0");
+
+    private ConfigurationValueParser() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the raw value cannot be parsed to the target type or if the target type is not supported
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T parse(String rawValue, Class<T> targetType) {
+        Object result;
+        if (targetType == String.class) {
+            result = rawValue;
+        } else if (targetType == Set.class) {
+            result = parseSet(rawValue);
+        } else if (targetType == boolean.class || targetType == Boolean.class) {
+            result = parseBoolean(rawValue);
+        } else if (targetType == int.class || targetType == Integer.class) {
+            result = NumberUtils.parseNumber(rawValue.trim(), Integer.class);
+        } else if (targetType == long.class || targetType == Long.class) {
+            result = NumberUtils.parseNumber(rawValue.trim(), Long.class);
+        } else if (targetType == double.class || targetType == Double.class) {
+            result = Double.valueOf(rawValue.trim());
+        } else {
+            throw new IllegalArgumentException("Unsupported type " + targetType + " for a configuration property of PropertiesLogger");
+        }
+        return (T) result;
+    }
+
+    private static Set<String> parseSet(String rawValue) {
+        Set<String> result = new LinkedHashSet<>();
+        Arrays.stream(StringUtils.commaDelimitedListToStringArray(rawValue))
+                .map(String::trim)
+                .forEach(result::add);
+        return result;
+    }
+
+    private static boolean parseBoolean(String rawValue) {
+        String value = rawValue.trim().toLowerCase(Locale.ROOT);
+        if (TRUE_VALUES.contains(value)) {
+            return true;
+        }
+        if (FALSE_VALUES.contains(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid boolean value '" + rawValue + "'");
+    }
+}
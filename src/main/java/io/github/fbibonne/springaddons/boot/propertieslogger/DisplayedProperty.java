@@ -0,0 +1,109 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A property as it is displayed in the log message : {@code plainLine} is the line without coloration, used to hash and
+ * compare reports. The line to log ({@link #line()}) is derived from the plain line by colorizing its spans (property
+ * names, values and origins) if coloration is enabled : only the plain line is kept.
+ *
+ * @param value        the displayed value (masked and truncated), also part of the plain line
+ * @param coloredSpans triples (start, end, type of span) of the spans of the plain line to colorize, empty if coloration
+ *                     is disabled
+ */
+record DisplayedProperty(String key, @Nullable String value, String plainLine, int[] coloredSpans, Colorizer colorizer) {
+
+    private static final int PROPERTY_NAME = 0;
+    private static final int VALUE = 1;
+    private static final int ORIGIN = 2;
+
+    /**
+     * @return the line to log, colorized if coloration is enabled
+     */
+    String line() {
+        if (coloredSpans.length == 0) {
+            return plainLine;
+        }
+        final StringBuilder line = new StringBuilder(plainLine.length() + coloredSpans.length * 8);
+        int copiedUpTo = 0;
+        for (int i = 0; i < coloredSpans.length; i += 3) {
+            final String span = plainLine.substring(coloredSpans[i], coloredSpans[i + 1]);
+            line.append(plainLine, copiedUpTo, coloredSpans[i]).append(switch (coloredSpans[i + 2]) {
+                case PROPERTY_NAME -> colorizer.colorizePropertyNameIfEnabled(span);
+                case VALUE -> colorizer.colorizeValueIfEnabled(span);
+                default -> colorizer.colorizeOriginIfEnabled(span);
+            });
+            copiedUpTo = coloredSpans[i + 1];
+        }
+        return line.append(plainLine, copiedUpTo, plainLine.length()).toString();
+    }
+
+    /**
+     * @return the number of bytes (UTF-8) of {@link #line()}, computed without deriving the line
+     */
+    long lineUtf8Length() {
+        long length = LogVolumeBudget.utf8Length(plainLine);
+        for (int i = 2; i < coloredSpans.length; i += 3) {
+            length += switch (coloredSpans[i]) {
+                case PROPERTY_NAME -> colorizer.propertyNameColorationLength();
+                case VALUE -> colorizer.valueColorationLength();
+                default -> colorizer.originColorationLength();
+            };
+        }
+        return length;
+    }
+
+    /**
+     * Builds the plain line of a property in one pass, recording the spans to colorize if coloration is enabled
+     */
+    static final class LineBuilder {
+
+        private static final int[] NO_SPANS = new int[0];
+
+        private final StringBuilder plainLine = new StringBuilder();
+        private final Colorizer colorizer;
+        private int[] coloredSpans = NO_SPANS;
+        private int coloredSpansLength;
+
+        LineBuilder(Colorizer colorizer) {
+            this.colorizer = colorizer;
+        }
+
+        LineBuilder append(Object text) {
+            plainLine.append(text);
+            return this;
+        }
+
+        LineBuilder appendPropertyName(String propertyName) {
+            return appendSpan(propertyName, PROPERTY_NAME);
+        }
+
+        LineBuilder appendValue(@Nullable String value) {
+            return appendSpan(String.valueOf(value), VALUE);
+        }
+
+        LineBuilder appendOrigin(String origin) {
+            return appendSpan(origin, ORIGIN);
+        }
+
+        private LineBuilder appendSpan(String span, int type) {
+            if (!colorizer.isColorationDisabled()) {
+                if (coloredSpansLength == coloredSpans.length) {
+                    coloredSpans = Arrays.copyOf(coloredSpans, Math.max(9, coloredSpans.length * 2));
+                }
+                coloredSpans[coloredSpansLength++] = plainLine.length();
+                coloredSpans[coloredSpansLength++] = plainLine.length() + span.length();
+                coloredSpans[coloredSpansLength++] = type;
+            }
+            plainLine.append(span);
+            return this;
+        }
+
+        DisplayedProperty build(String key, @Nullable String value) {
+            return new DisplayedProperty(key, value, plainLine.toString(),
+                    coloredSpansLength == 0 ? NO_SPANS : Arrays.copyOf(coloredSpans, coloredSpansLength), colorizer);
+        }
+    }
+}
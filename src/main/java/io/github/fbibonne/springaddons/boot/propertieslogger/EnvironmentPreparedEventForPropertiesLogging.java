@@ -1,113 +1,124 @@
 package io.github.fbibonne.springaddons.boot.propertieslogger;
 
 import org.jspecify.annotations.Nullable;
+import org.springframework.boot.SpringApplication;
 import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.logging.LoggingApplicationListener;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.*;
-import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ClassUtils;
 
-import java.lang.reflect.Method;
-import java.util.Objects;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Spring ApplicationListener which triggers on {@link ApplicationEnvironmentPreparedEvent} to start properties logging process.
  * If the logging is enabled (with property {@code properties.logger.disabled} at {@code false} (which is default value) ),
- * the listener will log properties using provided configuration. The responsibility of this class is only to trigger the process and collect the
- * configuration for logging properties (properties starting with {@code properties.logger}) in the environment. It delegates the
- * logging process to an instance of {@link PropertiesLogger}
+ * the listener will log properties using provided configuration. The responsibility of this class is only to trigger the process. The
+ * configuration for logging properties (properties starting with {@code properties.logger}) in the environment is compiled into a
+ * {@link PropertiesLoggerPolicy}, which is reused while this configuration does not change. The logging process is delegated to
+ * an instance of {@link PropertiesLogger} created by the policy.
+ * <br/>
+ * The listener runs after {@link LoggingApplicationListener} (its order is {@link Ordered#LOWEST_PRECEDENCE}) : the logging
+ * system is then initialized with the configuration of the application. If the report would not be output (level INFO
+ * disabled for {@link PropertiesLogger} with the default output), nothing is enumerated, resolved nor formatted.
+ * <br/>
+ * If {@code org.crac} is on the classpath, a {@link CheckpointRestoreResource} is then registered to report properties changed
+ * after a restore from a checkpoint.
  */
-public record EnvironmentPreparedEventForPropertiesLogging() implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+public record EnvironmentPreparedEventForPropertiesLogging() implements ApplicationListener<ApplicationEnvironmentPreparedEvent>, Ordered {
 
     private static final LocalLogger log = new LocalLogger(EnvironmentPreparedEventForPropertiesLogging.class);
 
-    private static final Set<String> DEFAULT_PROPS_WITH_HIDDEN_VALUES = Set.of("password", "pwd", "token", "secret", "credential", "pw");
-    private static final Set<String> DEFAULT_PREFIX_FOR_PROPERTIES = Set.of("debug", "trace", "info", "logging", "spring", "server", "management", "springdoc", "properties");
-    public static final Set<String> DEFAULT_SOURCES_IGNORED = Set.of(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME);
-    private static final boolean DEFAULT_PROPERTIES_LOGGER_DISABLED = false;
-    private static final boolean DEFAULT_COLORATION_DISABLED = false;
+    private static final boolean CRAC_PRESENT = ClassUtils.isPresent("org.crac.Core", EnvironmentPreparedEventForPropertiesLogging.class.getClassLoader());
 
-    private static final String KEY_FOR_PROPS_WITH_HIDDEN_VALUES = "properties.logger.with-hidden-values";
-    private static final String KEY_FOR_PREFIX_FOR_PROPERTIES = "properties.logger.prefix-for-properties";
+    /**
+     * @deprecated moved to {@link PropertiesLoggerPolicy#DEFAULT_SOURCES_IGNORED} with the other default values
+     */
+    @Deprecated
+    public static final Set<String> DEFAULT_SOURCES_IGNORED = PropertiesLoggerPolicy.DEFAULT_SOURCES_IGNORED;
+
+    static final String KEY_FOR_PROPS_WITH_HIDDEN_VALUES = "properties.logger.with-hidden-values";
+    static final String KEY_FOR_PREFIX_FOR_PROPERTIES = "properties.logger.prefix-for-properties";
     public static final String KEY_FOR_SOURCES_IGNORED = "properties.logger.sources-ignored";
     public static final String KEY_FOR_DISABLED = "properties.logger.disabled";
     public static final String KEY_FOR_COLORATION_DISABLED = "properties.logger.coloration.disabled";
+    public static final String KEY_FOR_MAX_BYTES = "properties.logger.max-bytes";
+    public static final String KEY_FOR_MAX_LINES = "properties.logger.max-lines";
+    public static final String KEY_FOR_MAX_VALUE_LENGTH = "properties.logger.max-value-length";
+    public static final String KEY_FOR_BASELINE_LOCATION = "properties.logger.baseline.location";
+    public static final String KEY_FOR_VALUE_SCANNING_ENABLED = "properties.logger.value-scanning.enabled";
+    public static final String KEY_FOR_VALUE_SCANNING_ENTROPY_THRESHOLD = "properties.logger.value-scanning.entropy-threshold";
+    public static final String KEY_FOR_CHECKPOINT_RESTORE_ENABLED = "properties.logger.checkpoint-restore.enabled";
+    public static final String KEY_FOR_OVERRIDES_ENABLED = "properties.logger.overrides.enabled";
+    public static final String KEY_FOR_RELAXED_NAMES_ENABLED = "properties.logger.relaxed-names.enabled";
+    public static final String KEY_FOR_RESOLUTION_TIMEOUT_PER_KEY_MILLIS = "properties.logger.resolution.timeout-per-key-millis";
+    public static final String KEY_FOR_RESOLUTION_TIMEOUT_TOTAL_MILLIS = "properties.logger.resolution.timeout-total-millis";
+    public static final String KEY_FOR_OUTPUT_TYPE = "properties.logger.output.type";
+    public static final String KEY_FOR_OUTPUT_FILE = "properties.logger.output.file";
+    public static final String KEY_FOR_OUTPUT_ASYNC = "properties.logger.output.async";
+    public static final String KEY_FOR_MASK_FINGERPRINT_SECRET = "properties.logger.mask.fingerprint-secret";
+    public static final String KEY_FOR_METADATA_PROBING_ENABLED = "properties.logger.metadata-probing.enabled";
+    public static final String KEY_FOR_PLACEHOLDERS_SUMMARY_ENABLED = "properties.logger.placeholders-summary.enabled";
+    public static final String KEY_FOR_KEYS = "properties.logger.keys";
+    public static final String KEY_FOR_CONFIG_TREE_MAX_VALUE_BYTES = "properties.logger.config-tree.max-value-bytes";
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
 
     @Override
     public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
         final ConfigurableEnvironment environment = event.getEnvironment();
-        if (loggingDisabled(environment)) {
+        log.trace(() -> "Collecting properties to configure PropertiesLogger");
+        final PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(environment);
+        if (policy.isDisabled()) {
             log.debug(() -> "PropertiesLogger is disabled");
             return;
         }
-        doLogProperties(new CustomAbstractEnvironment(environment));
-    }
-
-    private boolean loggingDisabled(Environment environment) {
-        return getPropertyOrDefaultAndTrace(environment, KEY_FOR_DISABLED, boolean.class, DEFAULT_PROPERTIES_LOGGER_DISABLED);
+        final SpringApplication springApplication = event.getSpringApplication();
+        doLogProperties(policy, new CustomAbstractEnvironment(environment, springApplication.getClassLoader()), springApplication);
     }
 
-    private void doLogProperties(CustomAbstractEnvironment abstractEnvironment) {
+    private void doLogProperties(PropertiesLoggerPolicy policy, CustomAbstractEnvironment abstractEnvironment, SpringApplication springApplication) {
         log.debug(() -> "Starting PropertiesLogger on ApplicationEnvironmentPreparedEvent");
-        log.trace(() -> "Collecting properties to configure PropertiesLogger");
-        final PropertiesWithHiddenValues propertiesWithHiddenValues = new PropertiesWithHiddenValues(getPropertyOrDefaultAndTrace(abstractEnvironment, KEY_FOR_PROPS_WITH_HIDDEN_VALUES, Set.class, DEFAULT_PROPS_WITH_HIDDEN_VALUES));
-        final AllowedPrefixForProperties allowedPrefixForProperties = new AllowedPrefixForProperties(getPropertyOrDefaultAndTrace(abstractEnvironment, KEY_FOR_PREFIX_FOR_PROPERTIES, Set.class, DEFAULT_PREFIX_FOR_PROPERTIES));
-        final IgnoredPropertySources ignoredPropertySources = new IgnoredPropertySources(getPropertyOrDefaultAndTrace(abstractEnvironment, KEY_FOR_SOURCES_IGNORED,  Set.class, DEFAULT_SOURCES_IGNORED));
-        final boolean colorationDisabled = getPropertyOrDefaultAndTrace(abstractEnvironment, KEY_FOR_COLORATION_DISABLED, boolean.class, DEFAULT_COLORATION_DISABLED);
-
-        PropertiesLogger propertiesLogger = new PropertiesLogger(propertiesWithHiddenValues, allowedPrefixForProperties, ignoredPropertySources, abstractEnvironment, new Colorizer(colorationDisabled));
-        propertiesLogger.doLogProperties();
-    }
-
-    private <T> T getPropertyOrDefaultAndTrace(PropertyResolver environment, String key, Class<T> clazz, T defaultValue) {
-        T result;
-        try {
-            result = getPropertyOrDefaultAndTraceThrowingException(environment, key, clazz, defaultValue);
-        } catch (RuntimeException e) {
-            logExceptionWhenGettingProperty(key, e);
-            result= defaultValue;
+        final PropertiesLogger propertiesLogger = policy.newPropertiesLogger(abstractEnvironment);
+        if (!propertiesLogger.reportSink.isEnabled()) {
+            log.debug(() -> "Level INFO is disabled for PropertiesLogger : properties are not logged");
+            return;
+        }
+        final List<DisplayedProperty> displayedProperties = propertiesLogger.doLogProperties();
+        if (CRAC_PRESENT && policy.isCheckpointRestoreEnabled()) {
+            CheckpointRestoreResource.register(springApplication, propertiesLogger, displayedProperties);
         }
-        return result;
-    }
-
-    private static void logExceptionWhenGettingProperty(String key, RuntimeException e) {
-        log.info(()-> "Error while getting property " + key + " : " + e.getMessage()+System.lineSeparator()+"Will use default value");
-    }
-
-    private static <T>  T getPropertyOrDefaultAndTraceThrowingException(PropertyResolver environment, String key, Class<T> clazz, T defaultValue) throws RuntimeException{
-        T result = environment.getProperty(key, clazz, defaultValue);
-        log.trace(() -> key + " -> " + result);
-        return result;
     }
 
     static final class CustomAbstractEnvironment implements PropertyResolver {
-        private static final Method getPropertyResolver = resolveMethod(AbstractEnvironment.class, "getPropertyResolver");
-        private static final Method getPropertyAsRawString = resolveMethod(AbstractPropertyResolver.class, "getPropertyAsRawString", String.class);
-        
-        private final ConfigurableEnvironment delegate;
-        @Nullable
-        private AbstractPropertyResolver propertyResolver;
 
+        private final ConfigurableEnvironment delegate;
+        private final @Nullable ClassLoader classLoader;
 
-        private static Method resolveMethod(Class<?> targetType, String methodName, Class<?>... parameterTypes) {
-            Method method = Objects.requireNonNull(ReflectionUtils.findMethod(targetType, methodName, parameterTypes));
-            ReflectionUtils.makeAccessible(method);
-            return method;
+        CustomAbstractEnvironment(ConfigurableEnvironment delegate) {
+            this(delegate, null);
         }
 
-        CustomAbstractEnvironment(ConfigurableEnvironment delegate) {
+        /**
+         * @param classLoader the class loader of the application, whose configuration metadata is probed in non
+         *                    enumerable property sources. If null, the default class loader is used
+         */
+        CustomAbstractEnvironment(ConfigurableEnvironment delegate, @Nullable ClassLoader classLoader) {
             this.delegate = delegate;
+            this.classLoader = classLoader;
+        }
+
+        @Nullable ClassLoader classLoader() {
+            return classLoader;
         }
 
-        @Nullable
-        private AbstractPropertyResolver invokeGetPropertyResolver(ConfigurableEnvironment delegate) {
-            if (delegate instanceof AbstractEnvironment abstractEnvironment) {
-                var abstractPropertyResolverCondidate = ReflectionUtils.invokeMethod(getPropertyResolver, abstractEnvironment);
-                if (abstractPropertyResolverCondidate instanceof AbstractPropertyResolver abstractPropertyResolver) {
-                    return abstractPropertyResolver;
-                }
-            }
-            return null;
+        boolean wraps(Environment environment) {
+            return delegate == environment;
         }
 
         @Override
@@ -158,30 +169,5 @@ public record EnvironmentPreparedEventForPropertiesLogging() implements Applicat
         public MutablePropertySources getPropertySources() {
             return delegate.getPropertySources();
         }
-
-        @Nullable
-        public String getPropertySafely(String key) {
-            try{
-                return delegate.getProperty(key);
-            }catch (IllegalArgumentException e) {
-                // IllegalArgumentException thrown when unresolved placeholder occurs
-                return getPropertyAsRawString(key);
-            } catch (Exception e) {
-                return "Error while getting property " + key + " : " + e.getMessage();
-            }
-        }
-
-        @Nullable
-        private String getPropertyAsRawString(String key) {
-            return invokeGetPropertyAsRawString(key);
-        }
-
-        @Nullable
-        private String invokeGetPropertyAsRawString(String key) {
-                  if (this.propertyResolver == null) {
-                this.propertyResolver = invokeGetPropertyResolver(this.delegate);
-            }
-            return (String) ReflectionUtils.invokeMethod(getPropertyAsRawString, this.propertyResolver, key);
-        }
     }
 }
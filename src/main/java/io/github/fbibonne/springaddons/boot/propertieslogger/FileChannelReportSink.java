@@ -0,0 +1,61 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Sink appending reports to a file with a {@link FileChannel} (property {@code properties.logger.output.file}) : reports
+ * don't depend on the logging system, which may not be configured yet when properties are logged. If the file cannot be
+ * written, a warning is logged and the report is written to the fallback sink. Reports are appended one at a time, so that
+ * concurrent reports are not interleaved.
+ */
+final class FileChannelReportSink implements ReportSink {
+
+    private static final LocalLogger log = new LocalLogger(FileChannelReportSink.class);
+
+    private final Path file;
+    private final ReportSink fallback;
+
+    FileChannelReportSink(Path file, ReportSink fallback) {
+        this.file = file;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public synchronized void write(Supplier<String> report) {
+        final String content = report.get();
+        final ByteBuffer bytes = StandardCharsets.UTF_8.encode(content + System.lineSeparator());
+        try {
+            final Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (bytes.hasRemaining()) {
+                    fileChannel.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            log.warn(() -> "Unable to write properties report to " + file + " : " + e.getMessage());
+            fallback.write(() -> content);
+        }
+    }
+
+    /**
+     * Reports are appended to a plain text file : they are written without ANSI escape codes
+     */
+    @Override
+    public boolean supportsColoration() {
+        return false;
+    }
+
+    Path file() {
+        return file;
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.springframework.util.PatternMatchUtils;
+
+import java.util.*;
+
+/**
+ * Keys to display instead of the keys with an allowed prefix (property {@code properties.logger.keys}) : exact keys and
+ * globs where {@value #WILDCARD} matches any sequence of characters (see {@link PatternMatchUtils#simpleMatch(String, String)}).
+ * <br/>
+ * Exact keys are looked up directly in property sources with {@link org.springframework.core.env.PropertySource#getProperty(String)}
+ * (property sources building values on demand build them), and property sources are not enumerated if the watchlist has no
+ * glob. Globs fall back to the full enumeration of enumerable property sources, whose names are filtered : they are
+ * indexed by their literal prefix (the characters before the first {@value #WILDCARD}) in a {@link NavigableMap} : a name
+ * is only matched against the globs whose literal prefix starts the name, found by walking down the index from the
+ * greatest literal prefix lower than or equal to the name.
+ */
+final class KeyWatchlist {
+
+    static final char WILDCARD = '*';
+    static final KeyWatchlist EMPTY = new KeyWatchlist(Set.of());
+
+    private final SortedSet<String> exactKeys = new TreeSet<>();
+    private final NavigableMap<String, List<String>> globsByLiteralPrefix = new TreeMap<>();
+
+    KeyWatchlist(Collection<String> entries) {
+        for (String entry : entries) {
+            final int wildcard = entry.indexOf(WILDCARD);
+            if (wildcard < 0) {
+                exactKeys.add(entry);
+            } else {
+                globsByLiteralPrefix.computeIfAbsent(entry.substring(0, wildcard), prefix -> new ArrayList<>(1)).add(entry);
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return !exactKeys.isEmpty() || hasGlobs();
+    }
+
+    boolean hasGlobs() {
+        return !globsByLiteralPrefix.isEmpty();
+    }
+
+    /**
+     * @return exact keys in alphabetical order
+     */
+    Collection<String> exactKeys() {
+        return Collections.unmodifiableSortedSet(exactKeys);
+    }
+
+    /**
+     * @return the literal prefixes of the globs
+     */
+    Collection<String> globLiteralPrefixes() {
+        return Collections.unmodifiableSet(globsByLiteralPrefix.keySet());
+    }
+
+    boolean matches(String key) {
+        return exactKeys.contains(key) || matchesGlob(key);
+    }
+
+    boolean matchesGlob(String key) {
+        String literalPrefix = globsByLiteralPrefix.floorKey(key);
+        while (literalPrefix != null) {
+            if (key.startsWith(literalPrefix)) {
+                for (String glob : globsByLiteralPrefix.get(literalPrefix)) {
+                    if (PatternMatchUtils.simpleMatch(glob, key)) {
+                        return true;
+                    }
+                }
+                if (literalPrefix.isEmpty()) {
+                    return false;
+                }
+                literalPrefix = globsByLiteralPrefix.floorKey(literalPrefix.substring(0, literalPrefix.length() - 1));
+            } else {
+                // Literal prefixes starting the key are prefixes of the common prefix of the key and this literal prefix
+                literalPrefix = globsByLiteralPrefix.floorKey(key.substring(0, commonPrefixLength(key, literalPrefix)));
+            }
+        }
+        return false;
+    }
+
+    private static int commonPrefixLength(String key, String literalPrefix) {
+        final int maxLength = Math.min(key.length(), literalPrefix.length());
+        int length = 0;
+        while (length < maxLength && key.charAt(length) == literalPrefix.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        final List<String> entries = new ArrayList<>(exactKeys);
+        globsByLiteralPrefix.values().forEach(entries::addAll);
+        return entries.toString();
+    }
+}
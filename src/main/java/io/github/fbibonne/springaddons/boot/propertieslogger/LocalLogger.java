@@ -23,6 +23,10 @@ record LocalLogger(Logger logger) {
         logger.atInfo().log(message);
     }
 
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
     public void warn(Supplier<String> message) {
         logger.atWarn().log(message);
     }
@@ -0,0 +1,200 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Limits the volume of the log message produced by {@link PropertiesLogger} (properties
+ * {@code properties.logger.max-bytes}, {@code properties.logger.max-lines} and {@code properties.logger.max-value-length}).
+ * A negative limit means no limit.
+ * <br/>
+ * The budget is consumed line by line while the report is built (see {@link Consumption}) so that no property is resolved
+ * nor formatted once the budget is exhausted. The budget covers the whole log message : the header is consumed first and
+ * room is reserved for the lines written after the properties (summaries, report hash), so that the limits are hard caps
+ * unless the header and the report hash alone exceed them.
+ *
+ * @param maxBytes       maximum number of bytes (UTF-8) of the whole log message
+ * @param maxLines       maximum number of lines of the whole log message
+ * @param maxValueLength maximum number of characters of a displayed value : longer values are truncated
+ */
+record LogVolumeBudget(long maxBytes, int maxLines, int maxValueLength) {
+
+    static final LogVolumeBudget UNLIMITED = new LogVolumeBudget(-1, -1, -1);
+
+    boolean isLimited() {
+        return maxBytes >= 0 || maxLines >= 0;
+    }
+
+    @Nullable String truncateIfTooLong(@Nullable String value) {
+        if (value == null || maxValueLength < 0 || value.length() <= maxValueLength) {
+            return value;
+        }
+        return value.substring(0, maxValueLength) + "... (+" + (value.length() - maxValueLength) + " chars)";
+    }
+
+    /**
+     * @param alreadyWritten       the beginning of the log message (header), consumed first
+     * @param reservedTrailerLines the longest lines which may be written after the properties : room is reserved for them
+     *                             (see {@link Consumption#fitReserved(String, String, String)})
+     */
+    Consumption startConsumption(CharSequence alreadyWritten, List<String> reservedTrailerLines) {
+        final Consumption consumption = new Consumption(utf8Length(alreadyWritten), lineBreaksCount(alreadyWritten));
+        reservedTrailerLines.forEach(consumption::reserve);
+        return consumption;
+    }
+
+    private static int lineBreaksCount(CharSequence charSequence) {
+        int lineBreaks = 0;
+        for (int i = 0; i < charSequence.length(); i++) {
+            if (charSequence.charAt(i) == '\n') {
+                lineBreaks++;
+            }
+        }
+        return lineBreaks;
+    }
+
+    /**
+     * Number of bytes of the UTF-8 encoding of a char sequence, computed without encoding it
+     */
+    static long utf8Length(CharSequence charSequence) {
+        long length = 0;
+        for (int i = 0; i < charSequence.length(); i++) {
+            char c = charSequence.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Mutable state of the consumption of a {@link LogVolumeBudget} during one logging pass. Once a line does not fit into
+     * the budget, the budget is exhausted : all following properties are only counted by prefix to be summarized.
+     * <br/>
+     * Each line is counted with a line separator, and a line containing line breaks (a property followed by its definitions)
+     * counts for as many lines.
+     */
+    final class Consumption {
+
+        private static final long LINE_SEPARATOR_LENGTH = System.lineSeparator().length();
+
+        private long consumedBytes;
+        private int consumedLines;
+        private long reservedBytes;
+        private int reservedLines;
+        private boolean exhausted;
+        private final Map<String, Integer> skippedByPrefix = new TreeMap<>();
+
+        private Consumption(long consumedBytes, int consumedLines) {
+            this.consumedBytes = consumedBytes;
+            this.consumedLines = consumedLines;
+        }
+
+        private void reserve(String line) {
+            reservedBytes += utf8Length(line) + LINE_SEPARATOR_LENGTH;
+            reservedLines += lineBreaksCount(line) + 1;
+        }
+
+        boolean isExhausted() {
+            return exhausted;
+        }
+
+        /**
+         * @return true if the line fits into the remaining budget (it is then consumed), false otherwise : the budget
+         * is then exhausted
+         */
+        boolean tryConsume(String line) {
+            return tryConsume(utf8Length(line), lineBreaksCount(line) + 1);
+        }
+
+        /**
+         * Same as {@link #tryConsume(String)} with the line to log of the displayed property, measured without being derived
+         */
+        boolean tryConsume(DisplayedProperty displayedProperty) {
+            return !isLimited() || tryConsume(displayedProperty.lineUtf8Length(), lineBreaksCount(displayedProperty.plainLine()) + 1);
+        }
+
+        private boolean tryConsume(long bytes, int lines) {
+            if (!isLimited()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            if (!fits(bytes, lines)) {
+                exhausted = true;
+                return false;
+            }
+            consume(bytes, lines);
+            return true;
+        }
+
+        /**
+         * Releases the room reserved for a line written after the properties and consumes the line instead if it fits into
+         * the remaining budget, the fallback line otherwise.
+         *
+         * @param fallbackLine a line not longer than the reserved line
+         * @return the line or the fallback line, to write
+         */
+        String fitReserved(String reservedLine, String line, String fallbackLine) {
+            if (!isLimited()) {
+                return line;
+            }
+            reservedBytes -= utf8Length(reservedLine) + LINE_SEPARATOR_LENGTH;
+            reservedLines -= lineBreaksCount(reservedLine) + 1;
+            final String fittingLine = fits(utf8Length(line), lineBreaksCount(line) + 1) ? line : fallbackLine;
+            consume(utf8Length(fittingLine), lineBreaksCount(fittingLine) + 1);
+            return fittingLine;
+        }
+
+        private boolean fits(long bytes, int lines) {
+            return (maxLines < 0 || consumedLines + reservedLines + lines <= maxLines)
+                    && (maxBytes < 0 || consumedBytes + reservedBytes + bytes + LINE_SEPARATOR_LENGTH <= maxBytes);
+        }
+
+        private void consume(long bytes, int lines) {
+            consumedLines += lines;
+            consumedBytes += bytes + LINE_SEPARATOR_LENGTH;
+        }
+
+        void skip(String prefix) {
+            skippedByPrefix.merge(prefix, 1, Integer::sum);
+        }
+
+        boolean hasSkipped() {
+            return !skippedByPrefix.isEmpty();
+        }
+
+        String skippedSummary() {
+            return skippedCountLine(skippedByPrefix.values().stream().mapToInt(Integer::intValue).sum()) + " : "
+                    + skippedByPrefix.entrySet().stream()
+                    .map(entry -> entry.getKey() + " (" + entry.getValue() + ")")
+                    .collect(Collectors.joining(", "));
+        }
+
+        /**
+         * @return the summary of skipped properties without the detail by prefix
+         */
+        String shortSkippedSummary() {
+            return skippedCountLine(skippedByPrefix.values().stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    /**
+     * @return the line counting skipped properties, the longest one being the one for {@link Integer#MAX_VALUE} properties
+     */
+    static String skippedCountLine(int skippedCount) {
+        return skippedCount + " properties not displayed to respect the log volume budget";
+    }
+}
@@ -21,17 +21,20 @@ public record OriginFinder(List<ConfigurationPropertySource> configurationProper
 
     public Optional<String> findOriginFor(String key) {
         try {
-            final ConfigurationPropertyName configurationPropertyName = ConfigurationPropertyName.of(key);
-            return configurationPropertySources.stream()
-                    .map(c -> c.getConfigurationProperty(configurationPropertyName))
-                    .filter(Objects::nonNull)
-                    .map(ConfigurationProperty::getOrigin)
-                    .filter(Objects::nonNull)
-                    .map(Object::toString)
-                    .map("FROM "::concat)
-                    .findFirst();
+            return findOriginFor(ConfigurationPropertyName.of(key));
         } catch (InvalidConfigurationPropertyNameException e) {
             return Optional.of("WARNING ! "+e.getMessage() + " : see org.springframework.boot.context.properties.source.ConfigurationPropertyName");
         }
     }
+
+    public Optional<String> findOriginFor(ConfigurationPropertyName configurationPropertyName) {
+        return configurationPropertySources.stream()
+                .map(c -> c.getConfigurationProperty(configurationPropertyName))
+                .filter(Objects::nonNull)
+                .map(ConfigurationProperty::getOrigin)
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .map("FROM "::concat)
+                .findFirst();
+    }
 }
@@ -0,0 +1,311 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.source.ConfigurationProperty;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.ConfigTreePropertySource;
+import org.springframework.boot.origin.PropertySourceOrigin;
+import org.springframework.core.env.PropertySource;
+import org.springframework.util.SystemPropertyUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Resolution of the values of the environment without exceptions, for one logging pass : the raw value of a key is looked
+ * up like the environment does it, then its {@code ${...}} placeholders (with default values, nested and escaped
+ * placeholders) are parsed once and the keys they reference are resolved first, recursively. Resolved values are kept,
+ * so each key is resolved once per pass whatever the number of values referencing it : keys are resolved in a
+ * topological order of the graph of their references.
+ * <br/>
+ * A placeholder referencing a key which cannot be resolved and without default value is kept as is and recorded as
+ * unresolved. When a placeholder references a key being resolved (a cycle in the graph), the cycle is recorded, keys of
+ * the cycle keep their raw values and placeholders referencing them are kept as is : values do not depend on the key
+ * of the cycle resolved first. Both are summarized by {@link #summary()}.
+ * <br/>
+ * Values backed by files of config trees are read with {@link ConfigTreeValues} : they may be masked without being read or
+ * replaced by the size and the path of their file. Values of {@link BatchPropertyLookup} sources are read from the values
+ * they prefetched for the pass (see {@link BatchPropertyLookups}) : when there are such sources, the lookup through the
+ * attached {@link ConfigurationPropertySources} source walks its {@link ConfigurationPropertySource}s itself so that
+ * the prefetched values are used along with the relaxed lookup of the other sources, and the origins of values are
+ * recorded.
+ * <br/>
+ * A pass may be resolved by many threads (see {@link ResolutionDeadlines}) : resolved values and records are held in
+ * concurrent maps and the path of keys being resolved is local to each top-level resolution. Values got by a resolution
+ * abandoned by the deadlines ({@link ResolutionDeadlines#isCurrentResolutionAbandoned()}) are not kept.
+ */
+final class PlaceholderGraph {
+
+    private static final String PREFIX = SystemPropertyUtils.PLACEHOLDER_PREFIX;
+    private static final String SUFFIX = SystemPropertyUtils.PLACEHOLDER_SUFFIX;
+    private static final char SEPARATOR = SystemPropertyUtils.VALUE_SEPARATOR.charAt(0);
+    private static final char ESCAPE = SystemPropertyUtils.ESCAPE_CHARACTER;
+
+    private final Iterable<PropertySource<?>> propertySources;
+    private final Map<String, Optional<String>> resolvedValues = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> unresolvedPlaceholdersByKey = new ConcurrentSkipListMap<>();
+    private final Set<String> cycles = new ConcurrentSkipListSet<>();
+    private final Set<String> cyclicKeys = ConcurrentHashMap.newKeySet();
+    private final ConfigTreeValues configTreeValues;
+    private final Set<String> keysWithFileOverCap = ConcurrentHashMap.newKeySet();
+    private final BatchPropertyLookups batchPropertyLookups;
+
+    PlaceholderGraph(Iterable<PropertySource<?>> propertySources) {
+        this(propertySources, ConfigTreeValues.UNCAPPED, new BatchPropertyLookups());
+    }
+
+    /**
+     * @param batchPropertyLookups the {@link BatchPropertyLookup} sources of the pass, which may be registered and
+     *                             prefetched after the creation of the graph
+     */
+    PlaceholderGraph(Iterable<PropertySource<?>> propertySources, ConfigTreeValues configTreeValues, BatchPropertyLookups batchPropertyLookups) {
+        this.propertySources = propertySources;
+        this.configTreeValues = configTreeValues;
+        this.batchPropertyLookups = batchPropertyLookups;
+    }
+
+    /**
+     * @return the value of the key with its placeholders resolved (the unresolvable ones kept as is), null if the key
+     * has no value, or an error message if a property source failed
+     */
+    @Nullable String resolvedValueOf(String key) {
+        try {
+            return resolve(key, new ArrayDeque<>()).orElse(null);
+        } catch (RuntimeException e) {
+            return "Error while getting property " + key + " : " + e.getMessage();
+        }
+    }
+
+    /**
+     * @return true if the value of the key is the size and the path of a config tree file larger than the cap
+     */
+    boolean hasFileValueOverCap(String key) {
+        return keysWithFileOverCap.contains(key);
+    }
+
+    boolean hasUnresolvedOrCyclicPlaceholders() {
+        return !unresolvedPlaceholdersByKey.isEmpty() || !cycles.isEmpty();
+    }
+
+    /**
+     * @return one line per key with unresolved placeholders and one line per cycle of placeholders met during the pass
+     */
+    String summary() {
+        final StringBuilder summary = new StringBuilder();
+        if (!unresolvedPlaceholdersByKey.isEmpty()) {
+            summary.append("Unresolved placeholders :");
+            unresolvedPlaceholdersByKey.forEach((key, placeholders) -> summary.append(System.lineSeparator())
+                    .append("- ").append(key).append(" -> ")
+                    .append(placeholders.stream().map(placeholder -> PREFIX + placeholder + SUFFIX).collect(Collectors.joining(", "))));
+        }
+        if (!cycles.isEmpty()) {
+            if (!summary.isEmpty()) {
+                summary.append(System.lineSeparator());
+            }
+            summary.append("Cyclic placeholders :");
+            cycles.forEach(cycle -> summary.append(System.lineSeparator()).append("- ").append(cycle));
+        }
+        return summary.toString();
+    }
+
+    private Optional<String> resolve(String key, Deque<String> path) {
+        final Optional<String> resolvedValue = resolvedValues.get(key);
+        if (resolvedValue != null) {
+            return resolvedValue;
+        }
+        final Object rawValue = rawValueOf(key);
+        final Optional<String> value;
+        if (rawValue == null) {
+            value = Optional.empty();
+        } else if (rawValue instanceof String stringValue && stringValue.contains(PREFIX)) {
+            path.push(key);
+            final String resolvedText = resolveText(stringValue, key, path);
+            path.pop();
+            value = Optional.of(cyclicKeys.contains(key) ? stringValue : resolvedText);
+        } else if (rawValue instanceof ConfigTreePropertySource.Value fileValue) {
+            final ConfigTreeValues.Content content = configTreeValues.contentOf(key, fileValue);
+            if (content.overCap()) {
+                keysWithFileOverCap.add(key);
+            }
+            value = Optional.of(content.text());
+        } else {
+            value = Optional.of(rawValue.toString());
+        }
+        if (!ResolutionDeadlines.isCurrentResolutionAbandoned()) {
+            // the value may be partial (a property source lookup cut short) : it is resolved again for the next keys
+            resolvedValues.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Raw value of a key looked up like {@code ConfigurationPropertySourcesPropertyResolver} does it : from the attached
+     * {@link ConfigurationPropertySources} source if the key is a valid {@link ConfigurationPropertyName}, from the
+     * property sources in precedence order otherwise
+     */
+    private @Nullable Object rawValueOf(String key) {
+        for (PropertySource<?> propertySource : propertySources) {
+            if (ConfigurationPropertySources.isAttachedConfigurationPropertySource(propertySource)) {
+                if (ConfigurationPropertyName.isValid(key)) {
+                    return batchPropertyLookups.isEmpty() ? propertySource.getProperty(key) : rawValueThroughAttachedSource(propertySource, key);
+                }
+            } else {
+                final Object rawValue = batchPropertyLookups.isEmpty() ? propertySource.getProperty(key) : rawValueRecordingOrigin(propertySource, key);
+                if (rawValue != null) {
+                    return rawValue;
+                }
+            }
+        }
+        return null;
+    }
+
+    private @Nullable Object rawValueRecordingOrigin(PropertySource<?> propertySource, String key) {
+        final Object rawValue = batchPropertyLookups.isPrefetched(propertySource, key) ? batchPropertyLookups.prefetchedValueOf(propertySource, key)
+                : propertySource.getProperty(key);
+        if (rawValue != null) {
+            batchPropertyLookups.recordOrigin(key, PropertySourceOrigin.get(propertySource, key));
+        }
+        return rawValue;
+    }
+
+    /**
+     * Same lookup as {@code ConfigurationPropertySourcesPropertySource#getProperty(String)} except that values prefetched
+     * from {@link BatchPropertyLookup} sources are read from {@link BatchPropertyLookups}
+     */
+    @SuppressWarnings("unchecked")
+    private @Nullable Object rawValueThroughAttachedSource(PropertySource<?> attachedPropertySource, String key) {
+        final ConfigurationPropertyName name = ConfigurationPropertyName.of(key);
+        for (ConfigurationPropertySource configurationPropertySource : (Iterable<ConfigurationPropertySource>) attachedPropertySource.getSource()) {
+            if (configurationPropertySource.getUnderlyingSource() instanceof PropertySource<?> propertySource
+                    && batchPropertyLookups.isPrefetched(propertySource, key)) {
+                final Object rawValue = batchPropertyLookups.prefetchedValueOf(propertySource, key);
+                if (rawValue != null) {
+                    batchPropertyLookups.recordOrigin(key, PropertySourceOrigin.get(propertySource, key));
+                    return rawValue;
+                }
+            } else {
+                final ConfigurationProperty configurationProperty = configurationPropertySource.getConfigurationProperty(name);
+                if (configurationProperty != null) {
+                    batchPropertyLookups.recordOrigin(key, configurationProperty.getOrigin());
+                    return configurationProperty.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private String resolveText(String text, String owner, Deque<String> path) {
+        final StringBuilder resolved = new StringBuilder(text.length());
+        int position = 0;
+        int start = text.indexOf(PREFIX);
+        while (start >= 0) {
+            if (start > position && text.charAt(start - 1) == ESCAPE) {
+                resolved.append(text, position, start - 1).append(PREFIX);
+                position = start + PREFIX.length();
+            } else {
+                final int end = endOfPlaceholder(text, start + PREFIX.length());
+                if (end < 0) {
+                    break;
+                }
+                resolved.append(text, position, start)
+                        .append(resolvePlaceholder(text.substring(start + PREFIX.length(), end), owner, path));
+                position = end + SUFFIX.length();
+            }
+            start = text.indexOf(PREFIX, position);
+        }
+        return resolved.append(text, position, text.length()).toString();
+    }
+
+    /**
+     * @param content content of a placeholder between its prefix and suffix : {@code key} or {@code key:default} where
+     *                both parts may contain placeholders
+     */
+    private String resolvePlaceholder(String content, String owner, Deque<String> path) {
+        final int separator = separatorIndex(content);
+        final String keyText = separator < 0 ? content : content.substring(0, separator);
+        final String key = keyText.contains(PREFIX) ? resolveText(keyText, owner, path) : unescapeSeparators(keyText);
+        if (path.contains(key)) {
+            recordCycle(key, path);
+            return PREFIX + content + SUFFIX;
+        }
+        final Optional<String> value = resolve(key, path);
+        if (cyclicKeys.contains(key)) {
+            return PREFIX + content + SUFFIX;
+        }
+        if (value.isPresent()) {
+            return value.get();
+        }
+        if (separator >= 0) {
+            return resolveText(content.substring(separator + 1), owner, path);
+        }
+        if (!ResolutionDeadlines.isCurrentResolutionAbandoned()) {
+            unresolvedPlaceholdersByKey.computeIfAbsent(owner, k -> new ConcurrentSkipListSet<>()).add(key);
+        }
+        return PREFIX + content + SUFFIX;
+    }
+
+    private void recordCycle(String key, Deque<String> path) {
+        final List<String> cycle = new ArrayList<>();
+        final Iterator<String> fromFirstResolved = path.descendingIterator();
+        boolean inCycle = false;
+        while (fromFirstResolved.hasNext()) {
+            final String resolvedKey = fromFirstResolved.next();
+            inCycle = inCycle || resolvedKey.equals(key);
+            if (inCycle) {
+                cycle.add(resolvedKey);
+            }
+        }
+        cyclicKeys.addAll(cycle);
+        final int first = cycle.indexOf(Collections.min(cycle));
+        final List<String> fromSmallestKey = new ArrayList<>(cycle.subList(first, cycle.size()));
+        fromSmallestKey.addAll(cycle.subList(0, first + 1));
+        cycles.add(String.join(" -> ", fromSmallestKey));
+    }
+
+    /**
+     * @return the index of the suffix closing the placeholder whose content starts at {@code from}, -1 if not closed
+     */
+    private static int endOfPlaceholder(String text, int from) {
+        int nestedPlaceholders = 0;
+        for (int i = from; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (text.startsWith(SUFFIX, i)) {
+                if (nestedPlaceholders == 0) {
+                    return i;
+                }
+                nestedPlaceholders--;
+            } else if (c == '{') {
+                nestedPlaceholders++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the first separator of the content of a placeholder which is neither escaped nor inside a
+     * nested placeholder, -1 if none
+     */
+    private static int separatorIndex(String content) {
+        int nestedPlaceholders = 0;
+        for (int i = 0; i < content.length(); i++) {
+            final char c = content.charAt(i);
+            if (c == '{') {
+                nestedPlaceholders++;
+            } else if (content.startsWith(SUFFIX, i)) {
+                nestedPlaceholders--;
+            } else if (c == SEPARATOR && nestedPlaceholders == 0 && (i == 0 || content.charAt(i - 1) != ESCAPE)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unescapeSeparators(String keyText) {
+        return keyText.indexOf(ESCAPE) < 0 ? keyText : keyText.replace(String.valueOf(ESCAPE) + SEPARATOR, String.valueOf(SEPARATOR));
+    }
+}
@@ -1,7 +1,9 @@
 package io.github.fbibonne.springaddons.boot.propertieslogger;
 
 import org.jspecify.annotations.Nullable;
+import org.springframework.boot.env.ConfigTreePropertySource;
 import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 
 import java.util.*;
@@ -21,27 +23,48 @@ public class PropertiesLogger {
 
     public static final String SEPARATION_LINE = "================================================================================";
     public static final String MASK = "******";
+    private static final String REPORT_HASH_PREFIX = "Report hash (SHA-256) : ";
+    private static final String RESERVED_HASH = "0".repeat(64);
+    private static final String RESERVED_SKIPPED_SUMMARY = LogVolumeBudget.skippedCountLine(Integer.MAX_VALUE);
+    private static final String TIMED_OUT_SUMMARY_SUFFIX = " properties not resolved within the resolution deadlines";
+    private static final String RESERVED_TIMED_OUT_SUMMARY = Integer.MAX_VALUE + TIMED_OUT_SUMMARY_SUFFIX;
+    private static final String PLACEHOLDERS_SUMMARY_OVER_BUDGET = "Unresolved or cyclic placeholders not listed to respect the log volume budget";
     private static final LocalLogger log = new LocalLogger(PropertiesLogger.class);
 
-    final PropertiesWithHiddenValues propertiesWithHiddenValues;
-    final AllowedPrefixForProperties allowedPrefixForProperties;
-    final IgnoredPropertySources ignoredPropertySources;
+    final PropertiesLoggerPolicy policy;
     final EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment abstractEnvironment;
     final OriginFinder originFinder;
     final Colorizer colorizer;
+    final LogVolumeBudget logVolumeBudget;
+    final ReportBaseline reportBaseline;
+    final SecretValueScanner secretValueScanner;
+    final ValueFingerprinter valueFingerprinter;
+    final ResolutionDeadlines resolutionDeadlines;
+    final ReportSink reportSink;
+    final CanonicalPropertyNames canonicalPropertyNames;
+    final PropertyDefinitions propertyDefinitions;
+    final KeyWatchlist keyWatchlist;
+    final ConfigTreeValues configTreeValues;
 
-
-    PropertiesLogger(PropertiesWithHiddenValues propertiesWithHiddenValues, AllowedPrefixForProperties allowedPrefixForProperties, IgnoredPropertySources ignoredPropertySources, EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment abstractEnvironment) {
-        this(propertiesWithHiddenValues, allowedPrefixForProperties, ignoredPropertySources, abstractEnvironment, new Colorizer(false));
-    }
-
-    PropertiesLogger(PropertiesWithHiddenValues propertiesWithHiddenValues, AllowedPrefixForProperties allowedPrefixForProperties, IgnoredPropertySources ignoredPropertySources, EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment abstractEnvironment, Colorizer colorizer) {
-        this.propertiesWithHiddenValues = propertiesWithHiddenValues;
-        this.allowedPrefixForProperties = allowedPrefixForProperties;
-        this.ignoredPropertySources = ignoredPropertySources;
+    /**
+     * @param policy the compiled configuration, shared between passes. Objects holding state for this pass are created
+     *               from the policy
+     */
+    PropertiesLogger(PropertiesLoggerPolicy policy, EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment abstractEnvironment) {
+        this.policy = policy;
         this.abstractEnvironment = abstractEnvironment;
         this.originFinder = new OriginFinder(abstractEnvironment.getPropertySources());
-        this.colorizer = colorizer;
+        this.reportSink = policy.reportSink();
+        this.colorizer = reportSink.supportsColoration() ? policy.colorizer() : Colorizer.NO_COLORATION;
+        this.logVolumeBudget = policy.logVolumeBudget();
+        this.reportBaseline = policy.reportBaseline();
+        this.secretValueScanner = policy.newSecretValueScanner();
+        this.valueFingerprinter = policy.newValueFingerprinter();
+        this.resolutionDeadlines = policy.resolutionDeadlines();
+        this.canonicalPropertyNames = new CanonicalPropertyNames(policy.isRelaxedNamesEnabled());
+        this.propertyDefinitions = new PropertyDefinitions(policy.isOverridesReportEnabled(), canonicalPropertyNames);
+        this.keyWatchlist = policy.keyWatchlist();
+        this.configTreeValues = policy.configTreeValues();
     }
 
     /**
@@ -50,35 +73,118 @@ public class PropertiesLogger {
      *     <li>lists all propertySources of the environment and exclude all those which won't be processed :
      *       <ul>
      *           <li>propertySources which will be processed must satisfy two conditions : be a subtype of {@link EnumerablePropertySource} AND
-     *           must not be ignored (see {@link IgnoredPropertySources#isIgnored(PropertySource)}</li>
+     *           must not be ignored (see {@link PropertiesLoggerPolicy#isIgnored(PropertySource)}</li>
      *           <li>debug message is logged if the propertySource is ignored</li>
-     *           <li>warn message is logged if the propertySource is a {@link org.springframework.boot.ansi.AnsiPropertySource} (whose processing is not implmented).
+     *           <li>warn message is logged if the propertySource is a {@link org.springframework.boot.ansi.AnsiPropertySource} (which is not enumerable).
      *           in such case, it will be ignored</li>
+     *           <li>if metadata probing is enabled (property {@code properties.logger.metadata-probing.enabled}), non enumerable propertySources
+     *           not ignored are processed too : their keys are the keys of the configuration metadata with an allowed prefix that they contain
+     *           (see {@link ConfigurationMetadataIndex})</li>
      *
      *           <li>If propertySource has an unknown type, a warning is logged</li>
      *       </ul>
      *     </li>
-     *     <li>for each propertySource not excluded, list all property keys then exclude {@code null} keys and non-allowed prefixed ones (see property {@code properties.logger.prefix-for-properties}</li>
-     *     <li>order distinct keys with alphabetical order (natural order of {@link String}</li>
+     *     <li>for each propertySource not excluded, list all property keys then exclude {@code null} keys and non-allowed prefixed ones (see property {@code properties.logger.prefix-for-properties}.
+     *     If a watchlist of keys is set (property {@code properties.logger.keys}, see {@link KeyWatchlist}), only watched keys
+     *     are kept instead : exact keys are looked up in the propertySource and the propertySource is enumerated only if the
+     *     watchlist has globs.
+     *     If the report of overrides is enabled, the names defined by all enumerable propertySources (even excluded ones)
+     *     are indexed in the same enumeration : their raw values are only read with the resolution of displayed keys
+     *     defined by many propertySources (see {@link PropertyDefinitions})</li>
+     *     <li>order distinct keys with alphabetical order (natural order of {@link String}. If relaxed names are enabled, keys
+     *     are distinct by their canonical forms and the displayed key is the form of the propertySource with the highest precedence
+     *     (see {@link CanonicalPropertyNames})</li>
      *     <li>for each key, compute an expression {@code key = value ### FROM value_origin ###}  where {@code value} is the value of the key resolved against
-     *     the environment ({@link PropertiesLogger#abstractEnvironment}) or masked if key is listed in property {@code properties.logger.with-hidden-values}. </li>
-     *     <li>log the list of used propertySources to find keys, the ordered list of properties and their values and origin when available</li>
+     *     the environment ({@link PropertiesLogger#abstractEnvironment}) or masked if key is listed in property {@code properties.logger.with-hidden-values}
+     *     or if the value looks like a secret when value scanning is enabled (see {@link SecretValueScanner}). If the report of overrides
+     *     is enabled and the key is defined by many propertySources, the expression is followed by one line per definition
+     *     with the masked raw value in precedence order</li>
+     *     <li>write to the {@link ReportSink} (logged with SLF4J by default) the list of used propertySources to find keys, the ordered list of properties and their values and origin when available</li>
      * </ol>
+     * When a {@link LogVolumeBudget} is limited, keys are computed in the order of precedence of the first propertySource
+     * which lists them, so that properties exclusively from lowest-priority propertySources are the first dropped.
+     * Once the budget is exhausted, the remaining keys are neither resolved nor formatted : they are only counted by prefix.
+     * <br/>
+     * When {@link ResolutionDeadlines} are set, the value and origin of each key are resolved within these deadlines : keys
+     * whose resolution times out are displayed with {@link ResolutionDeadlines#TIMED_OUT} as value.
+     * <br/>
+     * When propertySources implement {@link BatchPropertyLookup}, the raw values of all keys to display are fetched from
+     * each of them in one call, within the resolution deadlines, before values are resolved (see {@link BatchPropertyLookups}).
+     * <br/>
+     * A SHA-256 hash of the displayed properties (masked values, without coloration) is logged after the properties. When a
+     * {@link ReportBaseline} is enabled, only the differences with the baseline are logged (see {@link ReportBaseline}).
      *
+     * @return the displayed properties
      */
-    void doLogProperties() {
+    List<DisplayedProperty> doLogProperties() {
         debugStarting();
         final StringBuilder stringWithPropertiesToDisplay = new StringBuilder();
 
-        Map<String, String[]> propertyNamesBySource = propertyNamesBySourceFromEnvironment();
+        final BatchPropertyLookups batchPropertyLookups = new BatchPropertyLookups();
+        final PlaceholderGraph placeholderGraph = newPlaceholderGraph(batchPropertyLookups);
+        Map<String, String[]> propertyNamesBySource = propertyNamesBySourceFromEnvironment(batchPropertyLookups);
         final Set<String> propertySourceNames = propertyNamesBySource.keySet();
 
-        stringWithPropertiesToDisplay.append(headerBlock(propertySourceNames))
-                .append(toKeyValuesBlock(propertyNamesBySource))
-                .append(System.lineSeparator())
-                .append(SEPARATION_LINE);
+        stringWithPropertiesToDisplay.append(headerBlock(propertySourceNames));
+        final LogVolumeBudget.Consumption consumption = logVolumeBudget.startConsumption(stringWithPropertiesToDisplay, reservedTrailerLines());
+        final List<DisplayedProperty> displayedProperties;
+        final int timedOutCount;
+        try (ResolutionDeadlines.Pass resolutionPass = resolutionDeadlines.startPass()) {
+            displayedProperties = displayedPropertiesWithinBudget(propertyNamesBySource, consumption, resolutionPass, batchPropertyLookups, placeholderGraph);
+            timedOutCount = resolutionPass.timedOutCount();
+        }
+        final String reportHash = reportBaseline.isEnabled()
+                ? appendDifferencesWithBaseline(stringWithPropertiesToDisplay, displayedProperties, consumption)
+                : appendLines(stringWithPropertiesToDisplay, displayedProperties);
+
+        if (consumption.hasSkipped()) {
+            appendTrailerLine(stringWithPropertiesToDisplay, consumption.fitReserved(RESERVED_SKIPPED_SUMMARY,
+                    consumption.skippedSummary(), consumption.shortSkippedSummary()));
+        }
+        if (timedOutCount > 0) {
+            final String timedOutLine = timedOutCount + TIMED_OUT_SUMMARY_SUFFIX;
+            appendTrailerLine(stringWithPropertiesToDisplay, consumption.fitReserved(RESERVED_TIMED_OUT_SUMMARY, timedOutLine, timedOutLine));
+        }
+        if (policy.isPlaceholdersSummaryEnabled() && placeholderGraph.hasUnresolvedOrCyclicPlaceholders()) {
+            appendTrailerLine(stringWithPropertiesToDisplay, consumption.fitReserved(PLACEHOLDERS_SUMMARY_OVER_BUDGET,
+                    placeholderGraph.summary(), PLACEHOLDERS_SUMMARY_OVER_BUDGET));
+        }
+        appendTrailerLine(stringWithPropertiesToDisplay, SEPARATION_LINE);
+        appendTrailerLine(stringWithPropertiesToDisplay, REPORT_HASH_PREFIX + reportHash);
+
+        reportSink.write(stringWithPropertiesToDisplay::toString);
+        return displayedProperties;
+    }
+
+    /**
+     * @return the longest lines which may be written after the properties, for which room is reserved in the log volume
+     * budget
+     */
+    private List<String> reservedTrailerLines() {
+        if (!logVolumeBudget.isLimited()) {
+            return List.of();
+        }
+        final List<String> reservedTrailerLines = new ArrayList<>(List.of(SEPARATION_LINE, REPORT_HASH_PREFIX + RESERVED_HASH, RESERVED_SKIPPED_SUMMARY));
+        if (reportBaseline.isEnabled()) {
+            reservedTrailerLines.add(baselineDifferingLine(RESERVED_HASH));
+        }
+        if (resolutionDeadlines.isLimited()) {
+            reservedTrailerLines.add(RESERVED_TIMED_OUT_SUMMARY);
+        }
+        if (policy.isPlaceholdersSummaryEnabled()) {
+            reservedTrailerLines.add(PLACEHOLDERS_SUMMARY_OVER_BUDGET);
+        }
+        return reservedTrailerLines;
+    }
 
-        log.info(stringWithPropertiesToDisplay::toString);
+    /**
+     * Appends a line after the properties : if nothing was appended after the header, the line directly follows it
+     */
+    private static void appendTrailerLine(StringBuilder stringWithPropertiesToDisplay, String line) {
+        if (stringWithPropertiesToDisplay.charAt(stringWithPropertiesToDisplay.length() - 1) != '\n') {
+            stringWithPropertiesToDisplay.append(System.lineSeparator());
+        }
+        stringWithPropertiesToDisplay.append(line);
     }
 
     private String headerBlock(Set<String> propertySourceNames) {
@@ -91,12 +197,106 @@ public class PropertiesLogger {
                 """.formatted(SEPARATION_LINE, colorizer.colorizeHeaderIfEnabled("Values of properties from sources :"), propretySourceNamesOnePerLine(propertySourceNames));
     }
 
-    private String toKeyValuesBlock(Map<String, String[]> propertyNamesBySource) {
+    private List<DisplayedProperty> displayedPropertiesWithinBudget(Map<String, String[]> propertyNamesBySource, LogVolumeBudget.Consumption consumption,
+                                                                    ResolutionDeadlines.Pass resolutionPass, BatchPropertyLookups batchPropertyLookups,
+                                                                    PlaceholderGraph placeholderGraph) {
+        final SortedMap<String, DisplayedProperty> displayedPropertiesByKey = new TreeMap<>();
+        Stream<String> candidateKeys = candidateKeys(propertyNamesBySource);
+        if (!batchPropertyLookups.isEmpty()) {
+            final List<String> keys = candidateKeys.toList();
+            if (!resolutionPass.completeWithinDeadlines(() -> batchPropertyLookups.prefetch(keys))) {
+                log.debug(() -> "Values of batch property sources not prefetched within the resolution deadlines : they are requested key by key");
+            }
+            candidateKeys = keys.stream();
+        }
+        candidateKeys
+                .forEachOrdered(key -> {
+                    if (consumption.isExhausted()) {
+                        consumption.skip(policy.longestAllowedPrefixOf(key));
+                        return;
+                    }
+                    DisplayedProperty displayedProperty = toDisplayedProperty(key, resolutionPass, batchPropertyLookups, placeholderGraph);
+                    if (consumption.tryConsume(displayedProperty)) {
+                        displayedPropertiesByKey.put(key, displayedProperty);
+                    } else {
+                        consumption.skip(policy.longestAllowedPrefixOf(key));
+                    }
+                });
+        return new ArrayList<>(displayedPropertiesByKey.values());
+    }
+
+    /**
+     * Appends the lines of the displayed properties while they are hashed
+     *
+     * @return the hash of the report
+     */
+    private static String appendLines(StringBuilder stringWithPropertiesToDisplay, List<DisplayedProperty> displayedProperties) {
+        final ReportHasher reportHasher = new ReportHasher();
+        String lineSeparator = "";
+        for (DisplayedProperty displayedProperty : displayedProperties) {
+            reportHasher.update(displayedProperty.plainLine());
+            stringWithPropertiesToDisplay.append(lineSeparator).append(displayedProperty.line());
+            lineSeparator = System.lineSeparator();
+        }
+        return reportHasher.hexDigest();
+    }
+
+    /**
+     * Compares the displayed properties with the baseline while they are hashed. The lines of the properties of the baseline
+     * which are absent from the report are displayed within the log volume budget
+     *
+     * @return the hash of the report
+     */
+    private String appendDifferencesWithBaseline(StringBuilder stringWithPropertiesToDisplay, List<DisplayedProperty> displayedProperties,
+                                                 LogVolumeBudget.Consumption consumption) {
+        Optional<ReportBaseline.Content> baseline = reportBaseline.read();
+        if (baseline.isEmpty()) {
+            final String reportHash = appendLines(stringWithPropertiesToDisplay, displayedProperties);
+            reportBaseline.write(reportHash, displayedProperties);
+            return reportHash;
+        }
+        final ReportHasher reportHasher = new ReportHasher();
+        final ReportBaseline.Differences differences = baseline.get().newDifferences(colorizer);
+        for (DisplayedProperty displayedProperty : displayedProperties) {
+            reportHasher.update(displayedProperty.plainLine());
+            differences.add(displayedProperty);
+        }
+        final String reportHash = reportHasher.hexDigest();
+        final String reservedDifferingLine = baselineDifferingLine(RESERVED_HASH);
+        if (baseline.get().hash().equals(reportHash)) {
+            final String identicalLine = "Properties identical to baseline " + reportBaseline.file();
+            stringWithPropertiesToDisplay.append(consumption.fitReserved(reservedDifferingLine, identicalLine, identicalLine));
+            return reportHash;
+        }
+        stringWithPropertiesToDisplay.append(consumption.fitReserved(reservedDifferingLine, baselineDifferingLine(baseline.get().hash()),
+                baselineDifferingLine("")));
+        differences.lines((key, absentLine) -> {
+                    if (consumption.tryConsume(absentLine)) {
+                        return true;
+                    }
+                    consumption.skip(policy.longestAllowedPrefixOf(key));
+                    return false;
+                })
+                .forEach(difference -> stringWithPropertiesToDisplay.append(System.lineSeparator()).append(difference));
+        return reportHash;
+    }
+
+    private String baselineDifferingLine(String baselineHash) {
+        return "Properties differing from baseline " + reportBaseline.file()
+                + (baselineHash.isEmpty() ? "" : " (baseline hash : " + baselineHash + ")") + " :";
+    }
+
+    /**
+     * @return distinct keys with allowed prefix, in precedence order of the first propertySource which lists them. If relaxed
+     * names are enabled, keys are deduplicated by their canonical forms (see {@link CanonicalPropertyNames})
+     */
+    private Stream<String> candidateKeys(Map<String, String[]> propertyNamesBySource) {
+        if (canonicalPropertyNames.isRelaxedDeduplicationEnabled()) {
+            final MutablePropertySources propertySources = abstractEnvironment.getPropertySources();
+            return canonicalPropertyNames.winningKeys(propertyNamesBySource, name -> Objects.requireNonNull(propertySources.get(name)), this::keyWithAllowedPrefix);
+        }
         return distinctPropertiesNames(propertyNamesBySource)
-                .filter(this::keyWithAllowedPrefix)
-                .sorted()
-                .map(this::toDisplayedLine)
-                .collect(Collectors.joining(System.lineSeparator()));
+                .filter(this::keyWithAllowedPrefix);
     }
 
     private static Stream<String> distinctPropertiesNames(Map<String, String[]> propertyNamesBySource) {
@@ -105,39 +305,126 @@ public class PropertiesLogger {
                 .distinct();
     }
 
-    private Map<String, String[]> propertyNamesBySourceFromEnvironment() {
-        Map<String, String[]> propertyNamesBySource = new HashMap<>();
+    private Map<String, String[]> propertyNamesBySourceFromEnvironment(BatchPropertyLookups batchPropertyLookups) {
+        Map<String, String[]> propertyNamesBySource = new LinkedHashMap<>();
+        final boolean metadataProbingEnabled = policy.isMetadataProbingEnabled();
+        List<String> namesToProbe = null;
         for (PropertySource<?> propertySource : this.abstractEnvironment.getPropertySources()) {
-            asEnumerablePropertySourceIfHasToBeProcessed(propertySource)
-                    .ifPresent(enumerablePropertySource ->
-                            propertyNamesBySource.put(enumerablePropertySource.getName(), enumerablePropertySource.getPropertyNames())
-                    );
+            batchPropertyLookups.registerIfBatch(propertySource);
+            if (metadataProbingEnabled && PropertySourceType.isProbable(propertySource)) {
+                PropertySourceType.logProbing(propertySource);
+                if (isNotIgnored(propertySource)) {
+                    final String[] probedNames;
+                    if (keyWatchlist.isEnabled()) {
+                        probedNames = watchedPropertyNames(propertySource);
+                    } else {
+                        if (namesToProbe == null) {
+                            namesToProbe = ConfigurationMetadataIndex.of(abstractEnvironment.classLoader()).namesWithPrefixes(policy.allowedPrefixes()).toList();
+                        }
+                        probedNames = probedPropertyNames(propertySource, namesToProbe);
+                    }
+                    if (probedNames.length > 0) {
+                        propertyNamesBySource.put(propertySource.getName(), probedNames);
+                    }
+                }
+            } else if (PropertySourceType.isEnumerable(propertySource)) {
+                final EnumerablePropertySource<?> enumerablePropertySource = (EnumerablePropertySource<?>) propertySource;
+                final boolean notIgnored = isNotIgnored(propertySource);
+                if (notIgnored || propertyDefinitions.isEnabled()) {
+                    final String[] propertyNames = keyWatchlist.isEnabled() ? watchedPropertyNames(enumerablePropertySource)
+                            : PropertySourceType.propertyNamesOf(enumerablePropertySource, enumerationFilterFor(enumerablePropertySource));
+                    if (notIgnored) {
+                        propertyNamesBySource.put(enumerablePropertySource.getName(), propertyNames);
+                    }
+                    propertyDefinitions.collect(enumerablePropertySource, propertyNames, this::isKeyWithAllowedPrefix);
+                }
+            }
         }
         return propertyNamesBySource;
     }
 
-    private void debugStarting() {
-        log.debug(() -> "Start logging properties with prefix " + allowedPrefixForProperties + " for all properties sources except "
-                + ignoredPropertySources + ". Values masked for properties whose keys contain " + propertiesWithHiddenValues);
+    /**
+     * @return the filter of the names applied while the keys of a property source are iterated : names with an allowed
+     * prefix, or whose canonical form has an allowed prefix if relaxed names or the report of overrides need canonical forms
+     */
+    private Predicate<String> enumerationFilterFor(EnumerablePropertySource<?> propertySource, Predicate<String> nameFilter) {
+        if (canonicalPropertyNames.isRelaxedDeduplicationEnabled() || propertyDefinitions.isEnabled()) {
+            return propertyName -> nameFilter.test(propertyName)
+                    || nameFilter.test(canonicalPropertyNames.canonicalNameOf(propertyName, propertySource).toString());
+        }
+        return nameFilter;
     }
 
-    private String propretySourceNamesOnePerLine(Set<String> propertySourceNames) {
-        return propertySourceNames.stream().sorted().map(name -> "- " + name).collect(Collectors.joining(System.lineSeparator()));
+    private Predicate<String> enumerationFilterFor(EnumerablePropertySource<?> propertySource) {
+        if (canonicalPropertyNames.isRelaxedDeduplicationEnabled() || propertyDefinitions.isEnabled()) {
+            return enumerationFilterFor(propertySource, this::isKeyWithAllowedPrefix);
+        }
+        return this::keyWithAllowedPrefix;
+    }
+
+    /**
+     * @return the exact keys of the watchlist that the property source contains, followed by its names matching a glob of
+     * the watchlist if the property source is enumerable : the property source is enumerated only if the watchlist has globs
+     */
+    private String[] watchedPropertyNames(PropertySource<?> propertySource) {
+        final Set<String> watchedNames = new LinkedHashSet<>();
+        for (String exactKey : keyWatchlist.exactKeys()) {
+            if (hasValueSafely(propertySource, exactKey)) {
+                watchedNames.add(exactKey);
+            }
+        }
+        if (keyWatchlist.hasGlobs() && propertySource instanceof EnumerablePropertySource<?> enumerablePropertySource) {
+            Collections.addAll(watchedNames, PropertySourceType.propertyNamesOf(enumerablePropertySource,
+                    enumerationFilterFor(enumerablePropertySource, keyWatchlist::matchesGlob)));
+        }
+        log.trace(() -> watchedNames.size() + " watched keys found in " + propertySource);
+        return watchedNames.toArray(String[]::new);
+    }
+
+    /**
+     * @return the names, among the names of the configuration metadata with an allowed prefix, that the non enumerable
+     * property source contains
+     */
+    private static String[] probedPropertyNames(PropertySource<?> propertySource, List<String> namesToProbe) {
+        final String[] probedNames = namesToProbe.stream()
+                .filter(name -> containsPropertySafely(propertySource, name))
+                .toArray(String[]::new);
+        log.debug(() -> probedNames.length + " keys of the configuration metadata found in " + propertySource);
+        return probedNames;
     }
 
-    private Optional<EnumerablePropertySource<?>> asEnumerablePropertySourceIfHasToBeProcessed(PropertySource<?> propertySource) {
-        if (mustBeProcessed(propertySource)) {
-            return Optional.of((EnumerablePropertySource<?>) propertySource);
+    private static boolean containsPropertySafely(PropertySource<?> propertySource, String name) {
+        try {
+            return propertySource.containsProperty(name);
+        } catch (RuntimeException e) {
+            log.trace(() -> "Unable to probe " + name + " in " + propertySource + " : " + e);
+            return false;
         }
-        return Optional.empty();
     }
 
-    private boolean mustBeProcessed(PropertySource<?> propertySource) {
-        return PropertySourceType.isEnumerable(propertySource) && isNotIgnored(propertySource);
+    /**
+     * Unlike {@link EnumerablePropertySource#containsProperty(String)} which may enumerate the property source, looks the
+     * value of the key up
+     */
+    private static boolean hasValueSafely(PropertySource<?> propertySource, String name) {
+        try {
+            return propertySource.getProperty(name) != null;
+        } catch (RuntimeException e) {
+            log.trace(() -> "Unable to look " + name + " up in " + propertySource + " : " + e);
+            return false;
+        }
+    }
+
+    private void debugStarting() {
+        log.debug(() -> "Start logging properties with " + policy);
+    }
+
+    private String propretySourceNamesOnePerLine(Set<String> propertySourceNames) {
+        return propertySourceNames.stream().sorted().map(name -> "- " + name).collect(Collectors.joining(System.lineSeparator()));
     }
 
     private boolean isNotIgnored(PropertySource<?> propertySource) {
-        if (ignoredPropertySources.isIgnored(propertySource)) {
+        if (policy.isIgnored(propertySource)) {
             traceIgnored(propertySource);
             return false;
         }
@@ -148,26 +435,119 @@ public class PropertiesLogger {
         log.trace(() -> propertySource + " is listed to be ignored");
     }
 
-    private String toDisplayedLine(String key) {
-        return colorizer.colorizePropertyNameIfEnabled(key) + " = "
-                + colorizer.colorizeValueIfEnabled(resolveValueThenMaskItIfSecret(key, this.abstractEnvironment))
-                + this.originFinder.findOriginFor(key).map(this::originAsLine).orElse("");
+    DisplayedProperty toDisplayedProperty(String key) {
+        return toDisplayedProperties(List.of(key)).get(0);
+    }
+
+    /**
+     * Resolves the keys again out of a logging pass (values may have changed since the pass) : the keys share the same
+     * resolution of values and the same resolution deadlines
+     */
+    List<DisplayedProperty> toDisplayedProperties(Collection<String> keys) {
+        final BatchPropertyLookups batchPropertyLookups = new BatchPropertyLookups();
+        final PlaceholderGraph placeholderGraph = newPlaceholderGraph(batchPropertyLookups);
+        try (ResolutionDeadlines.Pass resolutionPass = resolutionDeadlines.startPass()) {
+            return keys.stream()
+                    .map(key -> toDisplayedProperty(key, resolutionPass, batchPropertyLookups, placeholderGraph))
+                    .toList();
+        }
+    }
+
+    /**
+     * @return a resolution of values for a logging pass or out of a logging pass (values may have changed since the pass)
+     */
+    private PlaceholderGraph newPlaceholderGraph(BatchPropertyLookups batchPropertyLookups) {
+        return new PlaceholderGraph(abstractEnvironment.getPropertySources(), configTreeValues, batchPropertyLookups);
+    }
+
+    /**
+     * Only the resolution, which requests property sources, runs within the deadlines (on another thread if deadlines are
+     * set) : values are masked and formatted on the calling thread, which owns the {@link SecretValueScanner} of the pass
+     */
+    private DisplayedProperty toDisplayedProperty(String key, ResolutionDeadlines.Pass resolutionPass, BatchPropertyLookups batchPropertyLookups,
+                                                  PlaceholderGraph placeholderGraph) {
+        return toDisplayedProperty(key, resolutionPass.resolveWithinDeadlines(() -> resolvedPropertyOf(key, batchPropertyLookups, placeholderGraph))
+                .orElseGet(() -> new ResolvedProperty(ResolutionDeadlines.TIMED_OUT, true, Optional.empty(), List.of())));
+    }
+
+    /**
+     * Formats the line of the property once : the colorized line is derived from the plain line when it is logged
+     */
+    private DisplayedProperty toDisplayedProperty(String key, ResolvedProperty resolvedProperty) {
+        final String displayedValue = resolvedProperty.displayedAsIs() ? resolvedProperty.value()
+                : logVolumeBudget.truncateIfTooLong(maskIfSecret(key, resolvedProperty.value()));
+        final DisplayedProperty.LineBuilder line = new DisplayedProperty.LineBuilder(colorizer)
+                .appendPropertyName(key).append(" = ").appendValue(displayedValue);
+        resolvedProperty.origin().ifPresent(origin -> line.append(" ### ").appendOrigin(origin).append(" ###"));
+        final List<DisplayedDefinition> definitions = displayedDefinitionsOf(key, resolvedProperty.definitions());
+        for (int i = 0; i < definitions.size(); i++) {
+            line.append(System.lineSeparator()).append("    ").append(i + 1).append(". ")
+                    .appendOrigin(definitions.get(i).propertySourceName())
+                    .append(" = ").appendValue(definitions.get(i).value());
+        }
+        return line.build(key, displayedValue);
+    }
+
+    /**
+     * Resolution of the value, the origin and the definitions of a key : all may request property sources
+     *
+     * @param batchPropertyLookups {@link BatchPropertyLookup} sources which provided values of the pass, to find origins
+     * @param placeholderGraph     resolution of values of the pass
+     */
+    private ResolvedProperty resolvedPropertyOf(String key, BatchPropertyLookups batchPropertyLookups, PlaceholderGraph placeholderGraph) {
+        final String value = placeholderGraph.resolvedValueOf(key);
+        final boolean fileValueOverCap = placeholderGraph.hasFileValueOverCap(key);
+        final Optional<String> originFromBatchPropertyLookups = batchPropertyLookups.originOf(key);
+        final Optional<String> origin = originFromBatchPropertyLookups.isPresent() ? originFromBatchPropertyLookups
+                : canonicalPropertyNames.canonicalNameOfWinningKey(key)
+                .map(this.originFinder::findOriginFor)
+                .orElseGet(() -> this.originFinder.findOriginFor(key));
+        return new ResolvedProperty(value, fileValueOverCap, origin, propertyDefinitions.definitionsIfOverridden(key));
+    }
+
+    /**
+     * @param value         the resolved value, neither masked nor truncated unless it is displayed as is
+     * @param displayedAsIs true if the value is not a value to mask (size and path of a config tree file over the cap,
+     *                      timed out resolution)
+     * @param definitions   the definitions of the key with their raw values if the key is defined by many property sources
+     *                      and if the report of overrides is enabled, an empty list otherwise
+     */
+    private record ResolvedProperty(@Nullable String value, boolean displayedAsIs, Optional<String> origin,
+                                    List<PropertyDefinitions.Definition> definitions) {
     }
 
-    private String originAsLine(String origin) {
-        return " ### " + colorizer.colorizeOriginIfEnabled(origin) + " ###";
+    /**
+     * @return the definitions of the key by property sources with masked raw values
+     */
+    private List<DisplayedDefinition> displayedDefinitionsOf(String key, List<PropertyDefinitions.Definition> definitions) {
+        return definitions.stream()
+                .map(definition -> new DisplayedDefinition(definition.propertySourceName(), displayedRawValueOf(key, definition.rawValue())))
+                .toList();
     }
 
-    private @Nullable String resolveValueThenMaskItIfSecret(String key, EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment environment) {
-        String value = environment.getPropertySafely(key);
-        if (mustBeMasked(key) && hasLength(value)) {
-            return MASK;
+    private @Nullable String displayedRawValueOf(String key, @Nullable Object rawValue) {
+        if (rawValue instanceof ConfigTreePropertySource.Value fileValue) {
+            final ConfigTreeValues.Content content = configTreeValues.contentOf(key, fileValue);
+            return content.overCap() ? content.text() : maskIfSecret(key, content.text());
         }
-        return value;
+        return maskIfSecret(key, rawValue == null ? null : rawValue.toString());
+    }
+
+    private record DisplayedDefinition(String propertySourceName, @Nullable String value) {
+    }
+
+    private @Nullable String maskIfSecret(String key, @Nullable String value) {
+        if (!hasLength(value)) {
+            return value;
+        }
+        if (mustBeMasked(key)) {
+            return valueFingerprinter.fingerprintOrMask(value);
+        }
+        return secretValueScanner.maskSecrets(value, valueFingerprinter::fingerprintOrMask);
     }
 
     private boolean mustBeMasked(String key) {
-        return propertiesWithHiddenValues.stream().anyMatch(isValueContainedIgnoringCaseIn(key));
+        return policy.mustBeMasked(key);
     }
 
     /**
@@ -180,18 +560,7 @@ public class PropertiesLogger {
      * (if String#containsIgnoreCase would exist)
      */
     Predicate<? super String> isValueContainedIgnoringCaseIn(String container) {
-        return value -> {
-            if (value.isEmpty()) {
-                return true;
-            }
-            int valueLength = value.length();
-            for (int i = 0; i <= container.length() - valueLength; i++) {
-                if (container.substring(i, i + valueLength).equalsIgnoreCase(value)) {
-                    return true;
-                }
-            }
-            return false;
-        };
+        return value -> PropertiesLoggerPolicy.containsIgnoringCase(container, value);
     }
 
     private boolean keyWithAllowedPrefix(String key) {
@@ -207,8 +576,11 @@ public class PropertiesLogger {
         log.debug(() -> key + " doesn't start with a logable prefix");
     }
 
+    /**
+     * @return true if the key is watched when a watchlist of keys is set, if it has an allowed prefix otherwise
+     */
     private boolean isKeyWithAllowedPrefix(String key) {
-        return allowedPrefixForProperties.anyMatch(key::startsWith);
+        return keyWatchlist.isEnabled() ? keyWatchlist.matches(key) : policy.hasAllowedPrefix(key);
     }
 
 }
\ No newline at end of file
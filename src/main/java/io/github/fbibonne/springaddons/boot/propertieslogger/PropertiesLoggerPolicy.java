@@ -0,0 +1,359 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static io.github.fbibonne.springaddons.boot.propertieslogger.EnvironmentPreparedEventForPropertiesLogging.*;
+
+/**
+ * Compiled configuration of the library (properties {@code properties.logger.*}) : values are parsed once and matchers
+ * for masked keys, allowed prefixes and ignored property sources are precompiled into arrays.
+ * <br/>
+ * A policy is immutable and thread safe : it can be reused to log properties of many environments from any thread with
+ * {@link #logProperties(ConfigurableEnvironment)}. Policies are cached by the raw values of their configuration properties,
+ * so a policy is compiled again only when the configuration changes. The state of one logging pass is held by a
+ * {@link PropertiesLogger} created for this pass.
+ */
+public final class PropertiesLoggerPolicy {
+
+    private static final LocalLogger log = new LocalLogger(PropertiesLoggerPolicy.class);
+
+    static final Set<String> DEFAULT_PROPS_WITH_HIDDEN_VALUES = Set.of("password", "pwd", "token", "secret", "credential", "pw");
+    static final Set<String> DEFAULT_PREFIX_FOR_PROPERTIES = Set.of("debug", "trace", "info", "logging", "spring", "server", "management", "springdoc", "properties");
+    public static final Set<String> DEFAULT_SOURCES_IGNORED = Set.of(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME);
+    private static final boolean DEFAULT_PROPERTIES_LOGGER_DISABLED = false;
+    private static final boolean DEFAULT_COLORATION_DISABLED = false;
+    private static final long DEFAULT_MAX_BYTES = -1;
+    private static final int DEFAULT_MAX_LINES = -1;
+    private static final int DEFAULT_MAX_VALUE_LENGTH = -1;
+    private static final String DEFAULT_BASELINE_LOCATION = "";
+    private static final boolean DEFAULT_VALUE_SCANNING_ENABLED = false;
+    private static final double DEFAULT_VALUE_SCANNING_ENTROPY_THRESHOLD = 4.0;
+    private static final boolean DEFAULT_CHECKPOINT_RESTORE_ENABLED = true;
+    private static final boolean DEFAULT_OVERRIDES_ENABLED = false;
+    private static final boolean DEFAULT_RELAXED_NAMES_ENABLED = false;
+    private static final long DEFAULT_RESOLUTION_TIMEOUT_PER_KEY_MILLIS = -1;
+    private static final long DEFAULT_RESOLUTION_TIMEOUT_TOTAL_MILLIS = -1;
+    private static final String DEFAULT_OUTPUT_TYPE = ReportSinks.SLF4J;
+    private static final String DEFAULT_OUTPUT_FILE = "";
+    private static final boolean DEFAULT_OUTPUT_ASYNC = false;
+    private static final String DEFAULT_MASK_FINGERPRINT_SECRET = "";
+    private static final boolean DEFAULT_METADATA_PROBING_ENABLED = false;
+    private static final boolean DEFAULT_PLACEHOLDERS_SUMMARY_ENABLED = false;
+    private static final Set<String> DEFAULT_KEYS = Set.of();
+    private static final long DEFAULT_CONFIG_TREE_MAX_VALUE_BYTES = 4096;
+
+    private static final List<String> KEYS = List.of(KEY_FOR_DISABLED, KEY_FOR_PROPS_WITH_HIDDEN_VALUES, KEY_FOR_PREFIX_FOR_PROPERTIES,
+            KEY_FOR_SOURCES_IGNORED, KEY_FOR_COLORATION_DISABLED, KEY_FOR_MAX_BYTES, KEY_FOR_MAX_LINES, KEY_FOR_MAX_VALUE_LENGTH,
+            KEY_FOR_BASELINE_LOCATION, KEY_FOR_VALUE_SCANNING_ENABLED, KEY_FOR_VALUE_SCANNING_ENTROPY_THRESHOLD,
+            KEY_FOR_CHECKPOINT_RESTORE_ENABLED, KEY_FOR_OVERRIDES_ENABLED, KEY_FOR_RELAXED_NAMES_ENABLED,
+            KEY_FOR_RESOLUTION_TIMEOUT_PER_KEY_MILLIS, KEY_FOR_RESOLUTION_TIMEOUT_TOTAL_MILLIS, KEY_FOR_OUTPUT_TYPE,
+            KEY_FOR_OUTPUT_FILE, KEY_FOR_OUTPUT_ASYNC, KEY_FOR_MASK_FINGERPRINT_SECRET,
+            KEY_FOR_METADATA_PROBING_ENABLED, KEY_FOR_PLACEHOLDERS_SUMMARY_ENABLED, KEY_FOR_KEYS,
+            KEY_FOR_CONFIG_TREE_MAX_VALUE_BYTES);
+    private static final Map<List<@Nullable String>, PropertiesLoggerPolicy> POLICIES_BY_RAW_VALUES = new ConcurrentReferenceHashMap<>();
+
+    /**
+     * Policy with the default value of every configuration property
+     */
+    static final PropertiesLoggerPolicy DEFAULT = POLICIES_BY_RAW_VALUES.computeIfAbsent(Collections.nCopies(KEYS.size(), null), PropertiesLoggerPolicy::compile);
+
+    private final boolean disabled;
+    private final String[] hiddenValuesTokens;
+    private final String[] allowedPrefixesLongestFirst;
+    private final String[] ignoredPropertySourceNames;
+    private final Colorizer colorizer;
+    private final LogVolumeBudget logVolumeBudget;
+    private final ReportBaseline reportBaseline;
+    private final boolean valueScanningEnabled;
+    private final double valueScanningEntropyThreshold;
+    private final ResolutionDeadlines resolutionDeadlines;
+    private final String outputType;
+    private final String outputFile;
+    private final boolean outputAsync;
+    private final ReportSink reportSink;
+    private final boolean overridesReportEnabled;
+    private final boolean relaxedNamesEnabled;
+    private final boolean checkpointRestoreEnabled;
+    private final byte @Nullable [] fingerprintSecret;
+    private final boolean metadataProbingEnabled;
+    private final boolean placeholdersSummaryEnabled;
+    private final KeyWatchlist keyWatchlist;
+    private final ConfigTreeValues configTreeValues;
+
+    private PropertiesLoggerPolicy(RawConfiguration configuration) {
+        this.disabled = configuration.valueOf(KEY_FOR_DISABLED, boolean.class, DEFAULT_PROPERTIES_LOGGER_DISABLED);
+        this.hiddenValuesTokens = configuration.<Set<String>>valueOf(KEY_FOR_PROPS_WITH_HIDDEN_VALUES, Set.class, DEFAULT_PROPS_WITH_HIDDEN_VALUES)
+                .toArray(String[]::new);
+        this.allowedPrefixesLongestFirst = configuration.<Set<String>>valueOf(KEY_FOR_PREFIX_FOR_PROPERTIES, Set.class, DEFAULT_PREFIX_FOR_PROPERTIES).stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .toArray(String[]::new);
+        this.ignoredPropertySourceNames = configuration.<Set<String>>valueOf(KEY_FOR_SOURCES_IGNORED, Set.class, DEFAULT_SOURCES_IGNORED)
+                .toArray(String[]::new);
+        this.colorizer = new Colorizer(configuration.valueOf(KEY_FOR_COLORATION_DISABLED, boolean.class, DEFAULT_COLORATION_DISABLED));
+        this.logVolumeBudget = new LogVolumeBudget(configuration.valueOf(KEY_FOR_MAX_BYTES, long.class, DEFAULT_MAX_BYTES),
+                configuration.valueOf(KEY_FOR_MAX_LINES, int.class, DEFAULT_MAX_LINES),
+                configuration.valueOf(KEY_FOR_MAX_VALUE_LENGTH, int.class, DEFAULT_MAX_VALUE_LENGTH));
+        this.reportBaseline = ReportBaseline.of(configuration.valueOf(KEY_FOR_BASELINE_LOCATION, String.class, DEFAULT_BASELINE_LOCATION));
+        this.valueScanningEnabled = configuration.valueOf(KEY_FOR_VALUE_SCANNING_ENABLED, boolean.class, DEFAULT_VALUE_SCANNING_ENABLED);
+        this.valueScanningEntropyThreshold = configuration.valueOf(KEY_FOR_VALUE_SCANNING_ENTROPY_THRESHOLD, double.class, DEFAULT_VALUE_SCANNING_ENTROPY_THRESHOLD);
+        this.resolutionDeadlines = new ResolutionDeadlines(configuration.valueOf(KEY_FOR_RESOLUTION_TIMEOUT_PER_KEY_MILLIS, long.class, DEFAULT_RESOLUTION_TIMEOUT_PER_KEY_MILLIS),
+                configuration.valueOf(KEY_FOR_RESOLUTION_TIMEOUT_TOTAL_MILLIS, long.class, DEFAULT_RESOLUTION_TIMEOUT_TOTAL_MILLIS));
+        this.outputType = configuration.valueOf(KEY_FOR_OUTPUT_TYPE, String.class, DEFAULT_OUTPUT_TYPE);
+        this.outputFile = configuration.valueOf(KEY_FOR_OUTPUT_FILE, String.class, DEFAULT_OUTPUT_FILE);
+        this.outputAsync = configuration.valueOf(KEY_FOR_OUTPUT_ASYNC, boolean.class, DEFAULT_OUTPUT_ASYNC);
+        this.reportSink = ReportSinks.of(outputType, outputFile, outputAsync);
+        this.overridesReportEnabled = configuration.valueOf(KEY_FOR_OVERRIDES_ENABLED, boolean.class, DEFAULT_OVERRIDES_ENABLED);
+        this.relaxedNamesEnabled = configuration.valueOf(KEY_FOR_RELAXED_NAMES_ENABLED, boolean.class, DEFAULT_RELAXED_NAMES_ENABLED);
+        this.checkpointRestoreEnabled = configuration.valueOf(KEY_FOR_CHECKPOINT_RESTORE_ENABLED, boolean.class, DEFAULT_CHECKPOINT_RESTORE_ENABLED);
+        final String maskFingerprintSecret = configuration.valueOf(KEY_FOR_MASK_FINGERPRINT_SECRET, String.class, DEFAULT_MASK_FINGERPRINT_SECRET);
+        this.fingerprintSecret = maskFingerprintSecret.isEmpty() ? null : maskFingerprintSecret.getBytes(StandardCharsets.UTF_8);
+        this.metadataProbingEnabled = configuration.valueOf(KEY_FOR_METADATA_PROBING_ENABLED, boolean.class, DEFAULT_METADATA_PROBING_ENABLED);
+        this.placeholdersSummaryEnabled = configuration.valueOf(KEY_FOR_PLACEHOLDERS_SUMMARY_ENABLED, boolean.class, DEFAULT_PLACEHOLDERS_SUMMARY_ENABLED);
+        final Set<String> keys = configuration.<Set<String>>valueOf(KEY_FOR_KEYS, Set.class, DEFAULT_KEYS);
+        this.keyWatchlist = keys.isEmpty() ? KeyWatchlist.EMPTY : new KeyWatchlist(keys);
+        this.configTreeValues = new ConfigTreeValues(configuration.valueOf(KEY_FOR_CONFIG_TREE_MAX_VALUE_BYTES, long.class, DEFAULT_CONFIG_TREE_MAX_VALUE_BYTES),
+                fingerprintSecret == null ? this::mustBeMasked : key -> false);
+    }
+
+    /**
+     * @param configuration the property resolver providing the {@code properties.logger.*} properties (usually the environment
+     *                      whose properties will be logged)
+     * @return the policy compiled from the raw values of the configuration properties, or the cached one if these raw values
+     * did not change
+     */
+    public static PropertiesLoggerPolicy of(PropertyResolver configuration) {
+        final List<@Nullable String> rawValues = new ArrayList<>(KEYS.size());
+        for (String key : KEYS) {
+            rawValues.add(rawValueOf(configuration, key));
+        }
+        return POLICIES_BY_RAW_VALUES.computeIfAbsent(rawValues, PropertiesLoggerPolicy::compile);
+    }
+
+    private static PropertiesLoggerPolicy compile(List<@Nullable String> rawValues) {
+        log.trace(() -> "Compiling PropertiesLogger policy");
+        return new PropertiesLoggerPolicy(new RawConfiguration(rawValues));
+    }
+
+    private static @Nullable String rawValueOf(PropertyResolver configuration, String key) {
+        try {
+            return configuration.getProperty(key);
+        } catch (RuntimeException e) {
+            logExceptionWhenGettingProperty(key, e);
+            return null;
+        }
+    }
+
+    private static void logExceptionWhenGettingProperty(String key, RuntimeException e) {
+        log.info(() -> "Error while getting property " + key + " : " + e.getMessage() + System.lineSeparator() + "Will use default value");
+    }
+
+    /**
+     * @return true if properties must not be logged when the application starts (property {@code properties.logger.disabled})
+     */
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    /**
+     * Logs the properties of the environment with this policy. It can be called from any thread, even if {@link #isDisabled()}
+     * is true : only the automatic logging at startup is disabled by {@code properties.logger.disabled}.
+     */
+    public void logProperties(ConfigurableEnvironment environment) {
+        final PropertiesLogger propertiesLogger = newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+        if (propertiesLogger.reportSink.isEnabled()) {
+            propertiesLogger.doLogProperties();
+        }
+    }
+
+    PropertiesLogger newPropertiesLogger(EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment environment) {
+        return new PropertiesLogger(this, environment);
+    }
+
+    /**
+     * @return true if the key contains, ignoring case, one of the values of {@code properties.logger.with-hidden-values}
+     */
+    boolean mustBeMasked(String key) {
+        for (String hiddenValuesToken : hiddenValuesTokens) {
+            if (containsIgnoringCase(key, hiddenValuesToken)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasAllowedPrefix(String key) {
+        for (String allowedPrefix : allowedPrefixesLongestFirst) {
+            if (key.startsWith(allowedPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the longest allowed prefix of the key or an empty string if the key has no allowed prefix
+     */
+    String longestAllowedPrefixOf(String key) {
+        for (String allowedPrefix : allowedPrefixesLongestFirst) {
+            if (key.startsWith(allowedPrefix)) {
+                return allowedPrefix;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Return true if the library is configured to ignore the propertySource passed as a parameter.
+     * <br/>
+     * The propertySource must be ignored if its name contains one of the names listed in the configuration property whose key is
+     * {@link EnvironmentPreparedEventForPropertiesLogging#KEY_FOR_SOURCES_IGNORED} (default names are {@link #DEFAULT_SOURCES_IGNORED})
+     */
+    boolean isIgnored(PropertySource<?> propertySource) {
+        final String propertySourceName = propertySource.getName();
+        for (String ignoredPropertySourceName : ignoredPropertySourceNames) {
+            if (propertySourceName.contains(ignoredPropertySourceName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Implementation of a String#containsIgnoreCase based the algorithm of String#contains but comparing regions
+     * ignoring case, without allocation
+     */
+    static boolean containsIgnoringCase(String container, String value) {
+        final int valueLength = value.length();
+        for (int i = 0; i <= container.length() - valueLength; i++) {
+            if (container.regionMatches(true, i, value, 0, valueLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Colorizer colorizer() {
+        return colorizer;
+    }
+
+    LogVolumeBudget logVolumeBudget() {
+        return logVolumeBudget;
+    }
+
+    ReportBaseline reportBaseline() {
+        return reportBaseline;
+    }
+
+    /**
+     * @return a new scanner : a scanner holds state and must not be shared between threads
+     */
+    SecretValueScanner newSecretValueScanner() {
+        return valueScanningEnabled ? new SecretValueScanner(true, valueScanningEntropyThreshold) : SecretValueScanner.DISABLED;
+    }
+
+    /**
+     * @return a new fingerprinter : a fingerprinter reuses its {@link javax.crypto.Mac} and buffers and must not be shared
+     * between passes
+     */
+    ValueFingerprinter newValueFingerprinter() {
+        return fingerprintSecret == null ? ValueFingerprinter.DISABLED : new ValueFingerprinter(fingerprintSecret);
+    }
+
+    ResolutionDeadlines resolutionDeadlines() {
+        return resolutionDeadlines;
+    }
+
+    /**
+     * @return the sink shared by all the passes of this policy : an asynchronous sink runs at most one background thread
+     * (and one shutdown hook) whatever the number of passes
+     */
+    ReportSink reportSink() {
+        return reportSink;
+    }
+
+    boolean isOverridesReportEnabled() {
+        return overridesReportEnabled;
+    }
+
+    boolean isRelaxedNamesEnabled() {
+        return relaxedNamesEnabled;
+    }
+
+    boolean isMetadataProbingEnabled() {
+        return metadataProbingEnabled;
+    }
+
+    boolean isPlaceholdersSummaryEnabled() {
+        return placeholdersSummaryEnabled;
+    }
+
+    /**
+     * @return the keys to display instead of the keys with an allowed prefix if {@code properties.logger.keys} is set
+     */
+    KeyWatchlist keyWatchlist() {
+        return keyWatchlist;
+    }
+
+    /**
+     * @return the reading of values of config trees : values of masked keys are not read unless they are displayed as
+     * fingerprints
+     */
+    ConfigTreeValues configTreeValues() {
+        return configTreeValues;
+    }
+
+    /**
+     * @return allowed prefixes, the longest first
+     */
+    List<String> allowedPrefixes() {
+        return Arrays.asList(allowedPrefixesLongestFirst.clone());
+    }
+
+    boolean isCheckpointRestoreEnabled() {
+        return checkpointRestoreEnabled;
+    }
+
+    @Override
+    public String toString() {
+        if (keyWatchlist.isEnabled()) {
+            return "keys " + keyWatchlist + " for all properties sources except "
+                    + Arrays.toString(ignoredPropertySourceNames) + ". Values masked for properties whose keys contain " + Arrays.toString(hiddenValuesTokens);
+        }
+        return "prefixes " + Arrays.toString(allowedPrefixesLongestFirst) + " for all properties sources except "
+                + Arrays.toString(ignoredPropertySourceNames) + ". Values masked for properties whose keys contain " + Arrays.toString(hiddenValuesTokens);
+    }
+
+    /**
+     * Raw values of the configuration properties parsed with {@link ConfigurationValueParser} : the conversion service
+     * of the environment is not involved. A value which cannot be parsed is replaced by the default value.
+     */
+    private record RawConfiguration(List<@Nullable String> rawValues) {
+
+        <T> T valueOf(String key, Class<?> clazz, T defaultValue) {
+            final String rawValue = rawValues.get(KEYS.indexOf(key));
+            T result;
+            try {
+                result = rawValue == null ? defaultValue : ConfigurationValueParser.<T>parse(rawValue, castClass(clazz));
+            } catch (RuntimeException e) {
+                logExceptionWhenGettingProperty(key, e);
+                result = defaultValue;
+            }
+            final T tracedResult = result;
+            log.trace(() -> key + " -> " + tracedResult);
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Class<T> castClass(Class<?> clazz) {
+            return (Class<T>) clazz;
+        }
+    }
+}
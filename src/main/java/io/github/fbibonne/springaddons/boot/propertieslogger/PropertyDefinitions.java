@@ -0,0 +1,84 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Index of the definitions of properties by all enumerable property sources (including ignored ones), used to report
+ * properties which are defined by many property sources (property {@code properties.logger.overrides.enabled}). Ignored
+ * property sources are indexed because the overriding definition often comes from one of them (environment variables
+ * are ignored by default).
+ * <br/>
+ * The index is filled during the single enumeration of the property sources done by {@link PropertiesLogger} : each
+ * source is visited once and only its names are indexed. Raw values are read afterwards, only for the displayed properties
+ * which are defined by many property sources (see {@link #definitionsIfOverridden(String)}), so that they are read within
+ * the resolution deadlines of the pass and that no value of an ignored property source is read for a property defined
+ * only once. Names are indexed by their {@link ConfigurationPropertyName} form (see {@link CanonicalPropertyNames}) so
+ * that relaxed forms (for example {@code SPRING_DATASOURCE_URL} in environment variables) are indexed with the property
+ * they define. Property sources are visited in precedence order so definitions of a property are listed from the winning
+ * one to the most overridden one.
+ */
+final class PropertyDefinitions {
+
+    private final boolean enabled;
+    private final CanonicalPropertyNames canonicalPropertyNames;
+    private final Map<ConfigurationPropertyName, List<DefiningName>> definingNamesByName = new HashMap<>();
+
+    PropertyDefinitions(boolean enabled, CanonicalPropertyNames canonicalPropertyNames) {
+        this.enabled = enabled;
+        this.canonicalPropertyNames = canonicalPropertyNames;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indexes the definitions of the property source for names whose {@link ConfigurationPropertyName} form is accepted
+     * by the filter
+     */
+    void collect(EnumerablePropertySource<?> propertySource, String[] propertyNames, Predicate<String> nameFilter) {
+        if (!enabled) {
+            return;
+        }
+        for (String propertyName : propertyNames) {
+            ConfigurationPropertyName configurationPropertyName = canonicalPropertyNames.canonicalNameOf(propertyName, propertySource);
+            if (!configurationPropertyName.isEmpty() && nameFilter.test(configurationPropertyName.toString())) {
+                definingNamesByName.computeIfAbsent(configurationPropertyName, name -> new ArrayList<>(2))
+                        .add(new DefiningName(propertySource, propertyName));
+            }
+        }
+    }
+
+    /**
+     * @return the definitions of the property by the property sources in precedence order with their raw values if the
+     * property is defined by many property sources, an empty list otherwise
+     */
+    List<Definition> definitionsIfOverridden(String key) {
+        if (!enabled) {
+            return List.of();
+        }
+        final List<DefiningName> definingNames = definingNamesByName.getOrDefault(canonicalPropertyNames.canonicalNameOfWinningKey(key)
+                .orElseGet(() -> canonicalPropertyNames.canonicalNameOf(key)), List.of());
+        if (definingNames.size() < 2) {
+            return List.of();
+        }
+        return definingNames.stream()
+                .map(definingName -> new Definition(definingName.propertySource().getName(), definingName.propertySource().getProperty(definingName.propertyName())))
+                .toList();
+    }
+
+    /**
+     * Name under which a property source defines a property
+     */
+    private record DefiningName(PropertySource<?> propertySource, String propertyName) {
+    }
+
+    record Definition(String propertySourceName, @Nullable Object rawValue) {
+    }
+}
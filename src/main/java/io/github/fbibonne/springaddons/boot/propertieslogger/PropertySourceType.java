@@ -1,13 +1,22 @@
 package io.github.fbibonne.springaddons.boot.propertieslogger;
 
 import org.springframework.boot.ansi.AnsiPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
 import org.springframework.boot.env.RandomValuePropertySource;
 import org.springframework.boot.origin.OriginLookup;
+import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertiesPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
 import org.springframework.jndi.JndiPropertySource;
 
+import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public enum PropertySourceType {
@@ -18,12 +27,112 @@ public enum PropertySourceType {
 
     private static final LocalLogger log = new LocalLogger(PropertySourceType.class);
 
+    /**
+     * Adapters iterating directly over the keys held by common enumerable property sources, instead of copying them into
+     * the array returned by {@link EnumerablePropertySource#getPropertyNames()} : the adapter whose type is exactly the class
+     * of the property source is used. Subclasses may override {@link EnumerablePropertySource#getPropertyNames()} to filter
+     * or rename keys : for them, as for other property sources, {@link EnumerablePropertySource#getPropertyNames()} is used.
+     */
+    private static final List<KeyEnumerator<?>> KEY_ENUMERATORS = List.of(
+            new KeyEnumerator<>(CompositePropertySource.class, PropertySourceType::forEachKeyOfComposite),
+            new KeyEnumerator<>(PropertiesPropertySource.class, PropertySourceType::forEachKeyOfProperties),
+            new KeyEnumerator<>(MapPropertySource.class, PropertySourceType::forEachKeyOfMap),
+            new KeyEnumerator<>(OriginTrackedMapPropertySource.class, PropertySourceType::forEachKeyOfMap),
+            new KeyEnumerator<>(SystemEnvironmentPropertySource.class, PropertySourceType::forEachKeyOfMap));
+
     public static boolean isEnumerable(PropertySource<?> propertySource) {
         PropertySourceType propertySourceType = of(propertySource);
         propertySourceType.log(propertySource);
         return propertySourceType.isEnumerable();
     }
 
+    /**
+     * Logs that a non enumerable property source (see {@link #isProbable(PropertySource)}) will be probed for the keys of
+     * the configuration metadata (see {@link ConfigurationMetadataIndex}) instead of being ignored
+     */
+    static void logProbing(PropertySource<?> propertySource) {
+        log.debug(() -> propertySource + " is not enumerable : will be probed for the keys of the configuration metadata");
+    }
+
+    /**
+     * @return true if the property source is not enumerable and may hold values of its own : stubs are replaced later by
+     * the actual property sources, and the attached {@link ConfigurationPropertySources} source only exposes the values of
+     * the other property sources (ignored ones included)
+     */
+    static boolean isProbable(PropertySource<?> propertySource) {
+        return !isEnumerableInstance(propertySource) && !(propertySource instanceof PropertySource.StubPropertySource)
+                && !ConfigurationPropertySources.isAttachedConfigurationPropertySource(propertySource);
+    }
+
+    /**
+     * @return the distinct names of the property source accepted by the filter, which is applied while the keys of the
+     * property source are iterated : only accepted names are copied
+     */
+    static String[] propertyNamesOf(EnumerablePropertySource<?> propertySource, Predicate<String> nameFilter) {
+        final Collection<String> propertyNames = propertySource instanceof CompositePropertySource ? new LinkedHashSet<>() : new ArrayList<>();
+        forEachPropertyName(propertySource, propertyName -> {
+            if (nameFilter.test(propertyName)) {
+                propertyNames.add(propertyName);
+            }
+        });
+        return propertyNames.toArray(String[]::new);
+    }
+
+    private static void forEachPropertyName(EnumerablePropertySource<?> propertySource, Consumer<String> action) {
+        for (KeyEnumerator<?> keyEnumerator : KEY_ENUMERATORS) {
+            if (keyEnumerator.forEachKeyIfApplicable(propertySource, action)) {
+                return;
+            }
+        }
+        for (String propertyName : propertySource.getPropertyNames()) {
+            action.accept(propertyName);
+        }
+    }
+
+    private static void forEachKeyOfMap(MapPropertySource propertySource, Consumer<String> action) {
+        propertySource.getSource().keySet().forEach(action);
+    }
+
+    /**
+     * Keys of {@link java.util.Properties} are iterated while holding their lock, like
+     * {@link PropertiesPropertySource#getPropertyNames()} does. Non {@link String} keys are skipped.
+     */
+    private static void forEachKeyOfProperties(PropertiesPropertySource propertySource, Consumer<String> action) {
+        final Map<String, Object> properties = propertySource.getSource();
+        synchronized (properties) {
+            for (Object key : properties.keySet()) {
+                if (key instanceof String propertyName) {
+                    action.accept(propertyName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Nested property sources are iterated recursively, in their order. Non enumerable nested property sources are
+     * skipped (and make {@link CompositePropertySource#getPropertyNames()} fail).
+     */
+    private static void forEachKeyOfComposite(CompositePropertySource propertySource, Consumer<String> action) {
+        for (PropertySource<?> nestedPropertySource : propertySource.getPropertySources()) {
+            if (nestedPropertySource instanceof EnumerablePropertySource<?> enumerablePropertySource) {
+                forEachPropertyName(enumerablePropertySource, action);
+            } else {
+                log.debug(() -> nestedPropertySource + " nested in " + propertySource + " is not enumerable : will be ignored");
+            }
+        }
+    }
+
+    private record KeyEnumerator<T extends EnumerablePropertySource<?>>(Class<T> type, BiConsumer<T, Consumer<String>> forEachKey) {
+
+        boolean forEachKeyIfApplicable(EnumerablePropertySource<?> propertySource, Consumer<String> action) {
+            if (propertySource.getClass() == type) {
+                forEachKey.accept(type.cast(propertySource), action);
+                return true;
+            }
+            return false;
+        }
+    }
+
     private static PropertySourceType of(PropertySource<?> propertySource) {
         return isEnumerableInstance(propertySource) ? ENUMERABLE_PROPERTY_SOURCE : ofNonEnumerablePropertySource(propertySource);
     }
@@ -71,8 +180,10 @@ public enum PropertySourceType {
     private String logMessage(PropertySource<?> propertySource) {
         return switch (this) {
             case ANSI_PROPERTY_SOURCE ->
-                    "Processing of AnsiPropertySource " + propertySource + " not yet implemented : properties exclusively from this property source will be ignored";
-            case OTHERS, JDNI_PROPERTY_SOURCE_TYPE, UNKNOWN -> propertySource + " is not enumerable : will be ignored";
+                    "AnsiPropertySource " + propertySource + " is not enumerable : properties exclusively from this property source will be ignored unless "
+                            + EnvironmentPreparedEventForPropertiesLogging.KEY_FOR_METADATA_PROBING_ENABLED + " is true";
+            case OTHERS, JDNI_PROPERTY_SOURCE_TYPE, UNKNOWN -> propertySource + " is not enumerable : will be ignored unless "
+                    + EnvironmentPreparedEventForPropertiesLogging.KEY_FOR_METADATA_PROBING_ENABLED + " is true";
             case ENUMERABLE_PROPERTY_SOURCE ->
                     propertySource + " is a EnumerablePropertySource : is a candidate to find keys";
         };
@@ -0,0 +1,155 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Baseline of the report of properties, shared by instances of the same application (for example pods of a deployment
+ * with a shared volume) : its location is the value of the property {@code properties.logger.baseline.location}. If the
+ * location is a directory, the baseline is the file {@value #BASELINE_FILE_NAME} inside this directory.
+ * <br/>
+ * The first instance which does not find the baseline logs the full report and writes the baseline : the hash of the
+ * report on the first line followed by the displayed properties without coloration. Next instances only log the hash
+ * of their report and the properties whose displayed lines differ from the baseline.
+ *
+ * @param location location of the baseline, {@code null} if the baseline is disabled
+ */
+record ReportBaseline(@Nullable Path location) {
+
+    static final ReportBaseline NONE = new ReportBaseline(null);
+    static final String BASELINE_FILE_NAME = "properties-logger.baseline";
+    private static final LocalLogger log = new LocalLogger(ReportBaseline.class);
+    private static final String KEY_VALUE_SEPARATOR = " = ";
+
+    static ReportBaseline of(String location) {
+        return location.isBlank() ? NONE : new ReportBaseline(Path.of(location.strip()));
+    }
+
+    boolean isEnabled() {
+        return location != null;
+    }
+
+    Path file() {
+        Path nonNullLocation = Objects.requireNonNull(location);
+        return Files.isDirectory(nonNullLocation) ? nonNullLocation.resolve(BASELINE_FILE_NAME) : nonNullLocation;
+    }
+
+    Optional<Content> read() {
+        Path file = file();
+        if (!Files.isRegularFile(file)) {
+            log.debug(() -> "No baseline found at " + file);
+            return Optional.empty();
+        }
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            Iterator<String> iterator = lines.iterator();
+            if (!iterator.hasNext()) {
+                return Optional.empty();
+            }
+            String hash = iterator.next();
+            Map<String, String> plainLinesByKey = new HashMap<>();
+            iterator.forEachRemaining(line -> plainLinesByKey.put(keyOf(line), line));
+            return Optional.of(new Content(hash, plainLinesByKey));
+        } catch (IOException | UncheckedIOException e) {
+            log.warn(() -> "Unable to read baseline " + file + " : " + e.getMessage() + ". Full report will be logged");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the baseline in a temporary file which is then moved to the baseline file so that concurrent instances
+     * never read a partially written baseline.
+     */
+    void write(String hash, List<DisplayedProperty> displayedProperties) {
+        Path file = file();
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, BASELINE_FILE_NAME, ".tmp");
+            try (Stream<String> lines = Stream.concat(Stream.of(hash), displayedProperties.stream().map(p -> escapeLineBreaks(p.plainLine())))) {
+                Files.write(temporaryFile, (Iterable<String>) lines::iterator, StandardCharsets.UTF_8);
+            }
+            moveReplacing(temporaryFile, file);
+            log.debug(() -> "Baseline written to " + file);
+        } catch (IOException e) {
+            log.warn(() -> "Unable to write baseline " + file + " : " + e.getMessage());
+        }
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String keyOf(String plainLine) {
+        int separatorIndex = plainLine.indexOf(KEY_VALUE_SEPARATOR);
+        return separatorIndex < 0 ? plainLine : plainLine.substring(0, separatorIndex);
+    }
+
+    private static String escapeLineBreaks(String line) {
+        return line.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    /**
+     * Content of a baseline : hash of the report and displayed lines without coloration by key
+     */
+    record Content(String hash, Map<String, String> plainLinesByKey) {
+
+        Differences newDifferences(Colorizer colorizer) {
+            return new Differences(this, colorizer);
+        }
+    }
+
+    /**
+     * Differences of displayed properties with a baseline, accumulated property by property
+     */
+    static final class Differences {
+
+        private final Content baseline;
+        private final Colorizer colorizer;
+        private final SortedMap<String, DisplayedProperty> differingProperties = new TreeMap<>();
+        private final SortedSet<String> absentKeys;
+
+        private Differences(Content baseline, Colorizer colorizer) {
+            this.baseline = baseline;
+            this.colorizer = colorizer;
+            this.absentKeys = new TreeSet<>(baseline.plainLinesByKey().keySet());
+        }
+
+        void add(DisplayedProperty displayedProperty) {
+            absentKeys.remove(displayedProperty.key());
+            if (!escapeLineBreaks(displayedProperty.plainLine()).equals(baseline.plainLinesByKey().get(displayedProperty.key()))) {
+                differingProperties.put(displayedProperty.key(), displayedProperty);
+            }
+        }
+
+        /**
+         * @return the lines to log for the properties which differ from the baseline : the displayed line for properties
+         * which are new or have another displayed line, a line mentioning the absence for properties of the baseline which
+         * are not displayed anymore if they pass the filter (which receives the key and the line).
+         */
+        List<String> lines(BiPredicate<String, String> absentLineFilter) {
+            SortedMap<String, String> differencesByKey = new TreeMap<>();
+            differingProperties.forEach((key, displayedProperty) -> differencesByKey.put(key, displayedProperty.line()));
+            absentKeys.forEach(key -> {
+                String absentLine = colorizer.colorizePropertyNameIfEnabled(key) + " is absent (present in baseline)";
+                if (absentLineFilter.test(key, absentLine)) {
+                    differencesByKey.put(key, absentLine);
+                }
+            });
+            return new ArrayList<>(differencesByKey.values());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Incremental SHA-256 hash of the lines of a report : lines are digested one by one, so the report never needs to be
+ * joined into a single string to be hashed.
+ */
+final class ReportHasher {
+
+    private final MessageDigest messageDigest;
+
+    ReportHasher() {
+        try {
+            this.messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required for every implementation of the Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void update(String line) {
+        messageDigest.update(line.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) '\n');
+    }
+
+    String hexDigest() {
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+}
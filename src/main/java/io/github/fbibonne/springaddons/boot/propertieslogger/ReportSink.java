@@ -0,0 +1,56 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import java.util.function.Supplier;
+
+/**
+ * Destination of the reports produced by {@link PropertiesLogger} (property {@code properties.logger.output.type}, see
+ * {@link ReportSinks}). Other messages (debug, trace, warnings) are always logged with {@link LocalLogger}.
+ * <br/>
+ * A sink is shared by the passes of a {@link PropertiesLoggerPolicy}, which may run on different threads : implementations
+ * must support concurrent calls to {@link #write(Supplier)}.
+ */
+interface ReportSink {
+
+    /**
+     * @param report the report : it is computed only if it will be written
+     */
+    void write(Supplier<String> report);
+
+    /**
+     * @return false if a written report would not be output (for example if level INFO is disabled for the logger) : the
+     * report is then neither computed nor written
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @return false if the output does not render ANSI escape codes (for example a file) : the report is then written
+     * without coloration, whatever the value of {@code properties.logger.coloration.disabled}
+     */
+    default boolean supportsColoration() {
+        return true;
+    }
+
+    /**
+     * Default sink : the report is logged at level INFO with SLF4J
+     */
+    final class Slf4jReportSink implements ReportSink {
+
+        private final LocalLogger log;
+
+        Slf4jReportSink(LocalLogger log) {
+            this.log = log;
+        }
+
+        @Override
+        public void write(Supplier<String> report) {
+            log.info(report);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return log.isInfoEnabled();
+        }
+    }
+}
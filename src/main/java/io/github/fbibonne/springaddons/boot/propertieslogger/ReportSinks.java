@@ -0,0 +1,46 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Factory of the {@link ReportSink} configured with properties {@code properties.logger.output.type} ({@value #SLF4J}
+ * or {@value #FILE}), {@code properties.logger.output.file} and {@code properties.logger.output.async}.
+ */
+final class ReportSinks {
+
+    static final String SLF4J = "slf4j";
+    static final String FILE = "file";
+    private static final LocalLogger log = new LocalLogger(ReportSinks.class);
+
+    private ReportSinks() {
+    }
+
+    static ReportSink of(String type, String file, boolean async) {
+        final ReportSink slf4jReportSink = slf4j();
+        final ReportSink reportSink = switch (type.trim().toLowerCase(Locale.ROOT)) {
+            case SLF4J -> slf4jReportSink;
+            case FILE -> fileReportSink(file, slf4jReportSink);
+            default -> {
+                log.warn(() -> "Unknown output type " + type + " for properties report : " + SLF4J + " will be used");
+                yield slf4jReportSink;
+            }
+        };
+        return async ? new AsyncReportSink(reportSink) : reportSink;
+    }
+
+    /**
+     * @return the default sink, logging with the logger of {@link PropertiesLogger}
+     */
+    static ReportSink slf4j() {
+        return new ReportSink.Slf4jReportSink(new LocalLogger(PropertiesLogger.class));
+    }
+
+    private static ReportSink fileReportSink(String file, ReportSink slf4jReportSink) {
+        if (file.isBlank()) {
+            log.warn(() -> "No file set with properties.logger.output.file for output type " + FILE + " : " + SLF4J + " will be used");
+            return slf4jReportSink;
+        }
+        return new FileChannelReportSink(Path.of(file.trim()), slf4jReportSink);
+    }
+}
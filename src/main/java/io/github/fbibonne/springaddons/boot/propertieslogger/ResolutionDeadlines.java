@@ -0,0 +1,170 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Time budget for the resolution of values and origins of properties during one logging pass (properties
+ * {@code properties.logger.resolution.timeout-per-key-millis} and {@code properties.logger.resolution.timeout-total-millis}).
+ * A negative timeout means no timeout.
+ * <br/>
+ * Property sources backed by remote clients (Vault, Consul ...) may block on I/O when a value is requested : when a timeout
+ * is set, each resolution runs on a daemon thread and the logging thread waits for it at most the per-key timeout (and never
+ * beyond the total deadline). A key whose resolution times out is displayed with {@link #TIMED_OUT} as value and its blocked
+ * resolution is interrupted. Once the total deadline is passed, the remaining keys are not resolved anymore.
+ * <br/>
+ * A resolution which ignores interruptions keeps running on its thread after its timeout : the pool of a pass is bounded to
+ * {@value #MAX_RESOLUTION_THREADS} threads and, once all of them are held by such resolutions, the next keys time out
+ * without being submitted. Submitted resolutions must then only request property sources : anything which is not thread
+ * safe (the masking of values) runs on the logging thread once the resolution returned. An abandoned resolution (timed out
+ * or interrupted, see {@link #isCurrentResolutionAbandoned()}) must not keep its partial results for the next keys.
+ *
+ * @param timeoutPerKeyMillis maximum duration of the resolution of one key
+ * @param timeoutTotalMillis  maximum duration of the resolution of all keys
+ */
+record ResolutionDeadlines(long timeoutPerKeyMillis, long timeoutTotalMillis) {
+
+    static final ResolutionDeadlines NONE = new ResolutionDeadlines(-1, -1);
+    static final String TIMED_OUT = "<timed out>";
+    static final int MAX_RESOLUTION_THREADS = 4;
+    private static final ThreadLocal<AtomicBoolean> ABANDONED_FLAG_OF_CURRENT_RESOLUTION = new ThreadLocal<>();
+
+    boolean isLimited() {
+        return timeoutPerKeyMillis >= 0 || timeoutTotalMillis >= 0;
+    }
+
+    /**
+     * @return true if the resolution running on the current thread was abandoned by the logging thread (its key timed out,
+     * or the total deadline passed) or if the current thread is interrupted : the values it got may be partial
+     */
+    static boolean isCurrentResolutionAbandoned() {
+        final AtomicBoolean abandoned = ABANDONED_FLAG_OF_CURRENT_RESOLUTION.get();
+        return Thread.currentThread().isInterrupted() || (abandoned != null && abandoned.get());
+    }
+
+    Pass startPass() {
+        return new Pass(isLimited() ? new ThreadPoolExecutor(0, MAX_RESOLUTION_THREADS, 1, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new DaemonThreadFactory(), new ThreadPoolExecutor.AbortPolicy()) : null);
+    }
+
+    /**
+     * State of the deadlines during one logging pass. It must be closed at the end of the pass to release its threads.
+     */
+    final class Pass implements AutoCloseable {
+
+        private final @Nullable ExecutorService executorService;
+        private final long totalDeadlineNanos;
+        private int timedOutCount;
+
+        private Pass(@Nullable ExecutorService executorService) {
+            this.executorService = executorService;
+            this.totalDeadlineNanos = timeoutTotalMillis >= 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutTotalMillis) : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return the result of the resolution of a key, or an empty optional if it did not complete within the deadlines :
+         * the key is then counted as timed out
+         */
+        <T> Optional<T> resolveWithinDeadlines(Supplier<T> resolution) {
+            final Optional<T> result = runWithinDeadlines(resolution);
+            if (result.isEmpty()) {
+                timedOutCount++;
+            }
+            return result;
+        }
+
+        /**
+         * Runs a task which is not the resolution of a key (for example the prefetch of values) within the deadlines
+         *
+         * @return true if the task completed within the deadlines
+         */
+        boolean completeWithinDeadlines(Runnable task) {
+            return runWithinDeadlines(() -> {
+                task.run();
+                return Boolean.TRUE;
+            }).isPresent();
+        }
+
+        private <T> Optional<T> runWithinDeadlines(Supplier<T> task) {
+            if (executorService == null) {
+                return Optional.of(task.get());
+            }
+            final long remainingNanos = remainingNanos();
+            if (remainingNanos <= 0) {
+                return Optional.empty();
+            }
+            final AtomicBoolean abandoned = new AtomicBoolean();
+            final Future<T> future;
+            try {
+                future = executorService.submit(() -> {
+                    ABANDONED_FLAG_OF_CURRENT_RESOLUTION.set(abandoned);
+                    try {
+                        return task.get();
+                    } finally {
+                        ABANDONED_FLAG_OF_CURRENT_RESOLUTION.remove();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // All threads are held by timed out tasks which ignored their interruption
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(future.get(remainingNanos, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                abandoned.set(true);
+                future.cancel(true);
+                return Optional.empty();
+            } catch (InterruptedException e) {
+                abandoned.set(true);
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        private long remainingNanos() {
+            final long untilTotalDeadline = totalDeadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : totalDeadlineNanos - System.nanoTime();
+            return timeoutPerKeyMillis >= 0 ? Math.min(TimeUnit.MILLISECONDS.toNanos(timeoutPerKeyMillis), untilTotalDeadline) : untilTotalDeadline;
+        }
+
+        int timedOutCount() {
+            return timedOutCount;
+        }
+
+        @Override
+        public void close() {
+            if (executorService != null) {
+                executorService.shutdownNow();
+            }
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "properties-logger-resolution-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue for one producer thread and one consumer thread at a time. The producer publishes an element
+ * by a release write of the tail index after having stored it, the consumer sees it by an acquire read of the tail index
+ * (and reciprocally for the head index when a slot is released).
+ *
+ * @param <E> type of elements
+ */
+final class SpscRingBuffer<E> {
+
+    private final @Nullable Object[] elements;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    SpscRingBuffer(int capacity) {
+        int powerOfTwoCapacity = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new Object[powerOfTwoCapacity];
+        this.mask = powerOfTwoCapacity - 1;
+    }
+
+    /**
+     * Called by the producer
+     *
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        final long currentTail = tail.getPlain();
+        if (currentTail - head.getAcquire() == elements.length) {
+            return false;
+        }
+        elements[(int) (currentTail & mask)] = element;
+        tail.setRelease(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Called by the consumer
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable E poll() {
+        final long currentHead = head.getPlain();
+        if (currentHead == tail.getAcquire()) {
+            return null;
+        }
+        final int index = (int) (currentHead & mask);
+        final E element = (E) elements[index];
+        elements[index] = null;
+        head.setRelease(currentHead + 1);
+        return element;
+    }
+
+    boolean isEmpty() {
+        return head.getAcquire() == tail.getAcquire();
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Computes fingerprints of masked values (property {@code properties.logger.mask.fingerprint-secret}) : a masked value is
+ * displayed as {@value #PREFIX} followed by the first {@value #FINGERPRINT_BYTES} bytes (hex encoded) of the HMAC-SHA256
+ * of the value keyed with the secret. Two instances of an application with the same secret display the same fingerprint
+ * if and only if they have the same value (with a high probability), without revealing the value to whom does not know
+ * the secret.
+ * <br/>
+ * The {@link Mac}, the encoder of values and the buffers are created once and reused for all values. Calls are
+ * synchronized as a resolution which timed out may still be running (see {@link ResolutionDeadlines}).
+ */
+final class ValueFingerprinter {
+
+    static final ValueFingerprinter DISABLED = new ValueFingerprinter(null);
+    static final String PREFIX = "hmac:";
+    static final int FINGERPRINT_BYTES = 6;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final @Nullable Mac mac;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final byte[] macOutput;
+    private final char[] fingerprintChars = new char[PREFIX.length() + 2 * FINGERPRINT_BYTES];
+    private ByteBuffer encodedValue = ByteBuffer.allocate(256);
+
+    /**
+     * @param secret key of the HMAC, fingerprinting is disabled if null
+     */
+    ValueFingerprinter(byte @Nullable [] secret) {
+        this.mac = secret == null ? null : initMac(secret);
+        this.macOutput = new byte[mac == null ? 0 : mac.getMacLength()];
+        PREFIX.getChars(0, PREFIX.length(), fingerprintChars, 0);
+    }
+
+    private static Mac initMac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM + " for fingerprints of masked values", e);
+        }
+    }
+
+    boolean isEnabled() {
+        return mac != null;
+    }
+
+    /**
+     * @return the fingerprint of the value if fingerprinting is enabled, {@link PropertiesLogger#MASK} otherwise
+     */
+    synchronized String fingerprintOrMask(String value) {
+        if (mac == null) {
+            return PropertiesLogger.MASK;
+        }
+        mac.update(encode(value));
+        try {
+            mac.doFinal(macOutput, 0);
+        } catch (GeneralSecurityException e) {
+            return PropertiesLogger.MASK;
+        }
+        int position = PREFIX.length();
+        for (int i = 0; i < FINGERPRINT_BYTES; i++) {
+            fingerprintChars[position++] = HEX_DIGITS[(macOutput[i] >> 4) & 0xF];
+            fingerprintChars[position++] = HEX_DIGITS[macOutput[i] & 0xF];
+        }
+        return new String(fingerprintChars);
+    }
+
+    /**
+     * @return the UTF-8 encoding of the value in the reused buffer, which grows if the value does not fit
+     */
+    private ByteBuffer encode(String value) {
+        final int maxLength = (int) Math.ceil(value.length() * (double) encoder.maxBytesPerChar());
+        if (encodedValue.capacity() < maxLength) {
+            encodedValue = ByteBuffer.allocate(maxLength);
+        }
+        encodedValue.clear();
+        encoder.reset();
+        final CharBuffer chars = CharBuffer.wrap(value);
+        CoderResult result = encoder.encode(chars, encodedValue, true);
+        if (!result.isError()) {
+            encoder.flush(encodedValue);
+        }
+        return encodedValue.flip();
+    }
+}
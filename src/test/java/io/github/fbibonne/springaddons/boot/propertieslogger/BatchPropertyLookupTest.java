@@ -0,0 +1,128 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class BatchPropertyLookupTest {
+
+    @Test
+    void valuesOfBatchSourceShouldBeFetchedInOneCallThenResolved(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        RemotePropertySource remotePropertySource = new RemotePropertySource(Map.of("com.batch.a", "remoteA", "com.batch.b", "${com.batch.local}-remoteB"));
+        environment.getPropertySources().addFirst(remotePropertySource);
+        environment.getPropertySources().addLast(new MapPropertySource("local", Map.of("com.batch.a", "localA", "com.batch.local", "local")));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")
+                .withProperty("properties.logger.sources-ignored", "")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        propertiesLogger.doLogProperties();
+
+        assertThat(output.toString()).contains("com.batch.a" + ConstantsForTestClasses.ANSI_NORMAL_SEQUENCE + " = " + ConstantsForTestClasses.ANSI_BROWN_UNDERLINE_SEQUENCE + "remoteA",
+                "com.batch.b" + ConstantsForTestClasses.ANSI_NORMAL_SEQUENCE + " = " + ConstantsForTestClasses.ANSI_BROWN_UNDERLINE_SEQUENCE + "local-remoteB",
+                "com.batch.local" + ConstantsForTestClasses.ANSI_NORMAL_SEQUENCE + " = " + ConstantsForTestClasses.ANSI_BROWN_UNDERLINE_SEQUENCE + "local",
+                "FROM \"com.batch.a\" from property source \"remote\"");
+        assertThat(remotePropertySource.batchCalls).isEqualTo(1);
+        assertThat(remotePropertySource.singleCalls).isZero();
+    }
+
+    @Test
+    void valuesOfBatchSourceShouldBeResolvedByTheResolutionOfThePass(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        RemotePropertySource remotePropertySource = new RemotePropertySource(Map.of("com.batch.cycle", "${com.batch.cycle}",
+                "com.batch.env-ref", "${com.batch.from-env}"));
+        environment.getPropertySources().addFirst(remotePropertySource);
+        // only found by the relaxed lookup of the attached source : the environment variable for com.batch.from-env
+        environment.getPropertySources().replace(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, new SystemEnvironmentPropertySource(
+                StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, Map.of("COM_BATCH_FROMENV", "fromEnv")));
+        ConfigurationPropertySources.attach(environment);
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com.batch")
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.placeholders-summary.enabled", "true")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        propertiesLogger.doLogProperties();
+
+        assertThat(output.toString()).contains("com.batch.env-ref = fromEnv ### FROM \"com.batch.env-ref\" from property source \"remote\" ###",
+                        "com.batch.cycle = ${com.batch.cycle} ### FROM",
+                        "- com.batch.cycle -> com.batch.cycle")
+                .doesNotContain("Error while getting property");
+        assertThat(remotePropertySource.batchCalls).isEqualTo(1);
+    }
+
+    @Test
+    void valuesShouldBeRequestedKeyByKeyIfThePrefetchTimesOut(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        RemotePropertySource remotePropertySource = new RemotePropertySource(Map.of("com.batch.a", "remoteA"), Duration.ofSeconds(10));
+        environment.getPropertySources().addFirst(remotePropertySource);
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.resolution.timeout-per-key-millis", "200")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        long start = System.nanoTime();
+        propertiesLogger.doLogProperties();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+        assertThat(output.toString()).contains("com.batch.a = remoteA").doesNotContain("<timed out>");
+        assertThat(remotePropertySource.singleCalls).isPositive();
+    }
+
+    /**
+     * Stand-in for a property source backed by a remote store which counts its calls
+     */
+    static final class RemotePropertySource extends EnumerablePropertySource<Map<String, Object>> implements BatchPropertyLookup {
+
+        private final Duration batchDuration;
+        volatile int batchCalls;
+        volatile int singleCalls;
+
+        RemotePropertySource(Map<String, Object> source) {
+            this(source, Duration.ZERO);
+        }
+
+        RemotePropertySource(Map<String, Object> source, Duration batchDuration) {
+            super("remote", source);
+            this.batchDuration = batchDuration;
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            return getSource().keySet().toArray(String[]::new);
+        }
+
+        @Override
+        public @Nullable Object getProperty(String name) {
+            singleCalls++;
+            return getSource().get(name);
+        }
+
+        @Override
+        public Map<String, @Nullable Object> getProperties(Collection<String> names) {
+            batchCalls++;
+            try {
+                Thread.sleep(batchDuration.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            Map<String, @Nullable Object> values = new HashMap<>();
+            names.forEach(name -> values.put(name, getSource().get(name)));
+            return values;
+        }
+    }
+}
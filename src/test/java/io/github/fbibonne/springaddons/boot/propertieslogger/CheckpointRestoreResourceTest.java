@@ -0,0 +1,77 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class CheckpointRestoreResourceTest {
+
+    @Test
+    void afterRestoreShouldOnlyLogPropertiesChangedSinceCheckpoint(CapturedOutput output) {
+        Map<String, Object> properties = new HashMap<>(Map.of(
+                "com.restore.unchanged", "unchanged",
+                "com.restore.changed", "beforeCheckpoint",
+                "com.restore.password", "secretBeforeCheckpoint"));
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("restorable", properties));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.with-hidden-values", "password")
+                .withProperty("properties.logger.prefix-for-properties", "com")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+        CheckpointRestoreResource resource = new CheckpointRestoreResource(propertiesLogger, propertiesLogger.doLogProperties());
+
+        resource.beforeCheckpoint(null);
+        properties.put("com.restore.changed", "afterRestore");
+        properties.put("com.restore.password", "secretAfterRestore");
+        resource.afterRestore(null);
+
+        assertThat(output.toString().substring(output.toString().indexOf("Report hash"))).contains("Properties changed after restore from checkpoint :",
+                        "com.restore.changed" + ConstantsForTestClasses.ANSI_NORMAL_SEQUENCE + " = " + ConstantsForTestClasses.ANSI_BROWN_UNDERLINE_SEQUENCE + "afterRestore",
+                        "(before checkpoint : beforeCheckpoint)")
+                .doesNotContain("com.restore.unchanged", "com.restore.password", "secretAfterRestore", "secretBeforeCheckpoint");
+    }
+
+    @Test
+    void afterRestoreWithoutChangeShouldLogNoChange(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("restorable", Map.of("com.restore.unchanged", "unchanged")));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+        CheckpointRestoreResource resource = new CheckpointRestoreResource(propertiesLogger, propertiesLogger.doLogProperties());
+
+        resource.beforeCheckpoint(null);
+        resource.afterRestore(null);
+
+        assertThat(output.toString()).contains("No property changed after restore from checkpoint");
+    }
+
+    @Test
+    void afterRestoreShouldNotReportOnceTheApplicationContextIsClosed(CapturedOutput output) {
+        Map<String, Object> properties = new HashMap<>(Map.of("com.restore.changed", "beforeCheckpoint"));
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("restorable", properties));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+        CheckpointRestoreResource resource = new CheckpointRestoreResource(propertiesLogger, propertiesLogger.doLogProperties());
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.setEnvironment(environment);
+
+        resource.onApplicationEvent(new ContextClosedEvent(applicationContext));
+        properties.put("com.restore.changed", "afterRestore");
+        resource.beforeCheckpoint(null);
+        resource.afterRestore(null);
+
+        assertThat(output.toString()).doesNotContain("after restore from checkpoint");
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.ConfigTreePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigTreeValuesTest {
+
+    @TempDir
+    Path configTree;
+
+    private StandardEnvironment environment;
+
+    @BeforeEach
+    void createConfigTree() throws IOException {
+        write("app/name", "my-app\n");
+        write("app/db/password", "s3cr3t");
+        write("app/tls/certificate", "-".repeat(10_000));
+        environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new ConfigTreePropertySource("configtree", configTree,
+                ConfigTreePropertySource.Option.AUTO_TRIM_TRAILING_NEW_LINE));
+    }
+
+    @Test
+    void maskedFilesShouldNotBeReadAndLargeFilesShouldBeReplacedBySizeAndPath() throws IOException {
+        // a read of a deleted file would display an error instead of the mask
+        Files.delete(configTree.resolve("app/db/password"));
+
+        Map<String, String> linesByKey = displayedLinesByKey(new MockEnvironment());
+
+        assertThat(linesByKey.get("app.name")).startsWith("app.name = my-app ### ");
+        assertThat(linesByKey.get("app.db.password")).startsWith("app.db.password = " + PropertiesLogger.MASK + " ### ");
+        assertThat(linesByKey.get("app.tls.certificate"))
+                .startsWith("app.tls.certificate = <10000 bytes in file " + configTree.resolve("app/tls/certificate") + "> ### ");
+    }
+
+    @Test
+    void filesShouldBeReadTheSameWayWithBatchPropertySources() throws IOException {
+        Files.delete(configTree.resolve("app/db/password"));
+        BatchPropertyLookupTest.RemotePropertySource remotePropertySource = new BatchPropertyLookupTest.RemotePropertySource(Map.of("app.remote", "from-batch"));
+        environment.getPropertySources().addLast(remotePropertySource);
+        ConfigurationPropertySources.attach(environment);
+
+        Map<String, String> linesByKey = displayedLinesByKey(new MockEnvironment());
+
+        assertThat(remotePropertySource.batchCalls).isEqualTo(1);
+        assertThat(linesByKey.get("app.remote")).startsWith("app.remote = from-batch ### ");
+        assertThat(linesByKey.get("app.name")).startsWith("app.name = my-app ### ");
+        assertThat(linesByKey.get("app.db.password")).startsWith("app.db.password = " + PropertiesLogger.MASK + " ### ");
+        assertThat(linesByKey.get("app.tls.certificate"))
+                .startsWith("app.tls.certificate = <10000 bytes in file " + configTree.resolve("app/tls/certificate") + "> ### ");
+    }
+
+    @Test
+    void trailingNewLinesShouldBeTrimmedOnlyAsSpringTrimsThem() throws IOException {
+        write("app/lines", "first\nsecond\n");
+        environment.getPropertySources().replace("configtree", new ConfigTreePropertySource("configtree", configTree,
+                ConfigTreePropertySource.Option.AUTO_TRIM_TRAILING_NEW_LINE));
+        Map<String, String> linesByKeyWithAutoTrim = displayedLinesByKey(new MockEnvironment());
+        environment.getPropertySources().replace("configtree", new ConfigTreePropertySource("configtree", configTree));
+
+        Map<String, String> linesByKeyWithoutAutoTrim = displayedLinesByKey(new MockEnvironment());
+
+        // with the option, only the new line of a single line content is trimmed
+        assertThat(linesByKeyWithAutoTrim.get("app.name")).startsWith("app.name = my-app ### ");
+        assertThat(linesByKeyWithAutoTrim.get("app.lines")).startsWith("app.lines = first\nsecond\n ### ");
+        assertThat(linesByKeyWithoutAutoTrim.get("app.name")).startsWith("app.name = my-app\n ### ");
+        assertThat(environment.getProperty("app.name")).isEqualTo("my-app\n");
+    }
+
+    @Test
+    void filesShouldBeReadEntirelyWithoutCap() {
+        Map<String, String> linesByKey = displayedLinesByKey(new MockEnvironment()
+                .withProperty("properties.logger.config-tree.max-value-bytes", "-1"));
+
+        assertThat(linesByKey.get("app.tls.certificate")).startsWith("app.tls.certificate = " + "-".repeat(10_000) + " ### ");
+    }
+
+    @Test
+    void maskedFilesShouldBeReadToBeFingerprinted() {
+        Map<String, String> linesByKey = displayedLinesByKey(new MockEnvironment()
+                .withProperty("properties.logger.mask.fingerprint-secret", "deployment-secret"));
+
+        String expectedFingerprint = new ValueFingerprinter("deployment-secret".getBytes(StandardCharsets.UTF_8)).fingerprintOrMask("s3cr3t");
+        assertThat(linesByKey.get("app.db.password")).startsWith("app.db.password = " + expectedFingerprint + " ### ");
+    }
+
+    private Map<String, String> displayedLinesByKey(MockEnvironment configuration) {
+        return PropertiesLoggerPolicy.of(configuration
+                        .withProperty("properties.logger.coloration.disabled", "true")
+                        .withProperty("properties.logger.prefix-for-properties", "app"))
+                .newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment))
+                .doLogProperties().stream()
+                .collect(Collectors.toMap(DisplayedProperty::key, DisplayedProperty::plainLine));
+    }
+
+    private void write(String file, String content) throws IOException {
+        Path path = configTree.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ConfigurationMetadataIndexTest {
+
+    @Test
+    void parserShouldOnlyKeepNamesOfProperties() throws IOException {
+        String json = """
+                {
+                  "groups": [{"name": "group.name", "type": "a.B"}],
+                  "properties": [
+                    {"type": "java.lang.String", "name": "first.key", "defaultValue": {"nested": ["name", 1.5e3, true, null]}},
+                    {"description": "with \\"quotes\\", escapes \\\\ and \\u00e9 ]}", "name": "second.k\\u0065y"},
+                    {"deprecation": {"level": "error"}, "name" : "third.key"}
+                  ],
+                  "hints": [{"name": "hint.name", "values": []}]
+                }
+                """;
+
+        assertThat(new ConfigurationMetadataIndex.PropertyNamesParser(new StringReader(json)).parse())
+                .containsExactly("first.key", "second.key", "third.key");
+    }
+
+    @Test
+    void indexShouldBeCachedByClassLoaderAndContainMetadataOfClasspath() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        ConfigurationMetadataIndex index = ConfigurationMetadataIndex.of(classLoader);
+
+        assertThat(ConfigurationMetadataIndex.of(classLoader)).isSameAs(index);
+        assertThat(index.namesWithPrefixes(List.of("properties.logger.output", "properties.logger.output.t", "spring.main.banner")))
+                .containsExactly("properties.logger.output.async", "properties.logger.output.file", "properties.logger.output.type",
+                        "spring.main.banner-mode");
+    }
+
+    @Test
+    void nonEnumerablePropertySourceShouldBeProbedForKeysOfMetadata(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new NonEnumerablePropertySource(Map.of(
+                "spring.main.banner-mode", "off",
+                "properties.logger.max-lines", "1000",
+                "spring.undeclared.key", "not probed")));
+        PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.metadata-probing.enabled", "true"));
+
+        policy.logProperties(environment);
+
+        assertThat(output.toString()).contains("- nonEnumerable",
+                        "spring.main.banner-mode = off",
+                        "properties.logger.max-lines = 1000")
+                .doesNotContain("spring.undeclared.key");
+    }
+
+    @Test
+    void attachedConfigurationPropertySourceShouldNotBeProbed(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("ignoredSource", Map.of("spring.main.banner-mode", "console-from-ignored")));
+        ConfigurationPropertySources.attach(environment);
+        PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.metadata-probing.enabled", "true")
+                .withProperty("properties.logger.sources-ignored", "systemProperties,systemEnvironment,ignoredSource"));
+
+        policy.logProperties(environment);
+
+        // the attached source wraps the ignored source : probing it would display the values of the ignored source
+        assertThat(output.toString()).doesNotContain("- configurationProperties",
+                "spring.main.banner-mode = console-from-ignored", "will be probed");
+    }
+
+    @Test
+    void metadataOfTheClassLoaderOfTheApplicationShouldBeProbed(@TempDir Path classpath) throws IOException {
+        Path metadataFile = classpath.resolve(ConfigurationMetadataIndex.METADATA_LOCATION);
+        Files.createDirectories(metadataFile.getParent());
+        Files.writeString(metadataFile, """
+                {"properties": [{"name": "com.application.only-in-its-class-loader", "type": "java.lang.String"}]}""");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new NonEnumerablePropertySource(Map.of("com.application.only-in-its-class-loader", "probed")));
+
+        try (URLClassLoader applicationClassLoader = new URLClassLoader(new URL[]{classpath.toUri().toURL()}, null)) {
+            List<DisplayedProperty> displayedProperties = PropertiesLoggerPolicy.of(new MockEnvironment()
+                            .withProperty("properties.logger.coloration.disabled", "true")
+                            .withProperty("properties.logger.metadata-probing.enabled", "true")
+                            .withProperty("properties.logger.prefix-for-properties", "com.application"))
+                    .newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment, applicationClassLoader))
+                    .doLogProperties();
+
+            assertThat(displayedProperties).extracting(DisplayedProperty::plainLine)
+                    .singleElement().asString().startsWith("com.application.only-in-its-class-loader = probed ###");
+        }
+    }
+
+    @Test
+    void nonEnumerablePropertySourceShouldBeIgnoredWithoutProbing(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new NonEnumerablePropertySource(Map.of("spring.main.banner-mode", "off")));
+
+        PropertiesLoggerPolicy.of(new MockEnvironment().withProperty("properties.logger.coloration.disabled", "true"))
+                .logProperties(environment);
+
+        assertThat(output.toString()).contains("is not enumerable : will be ignored unless properties.logger.metadata-probing.enabled is true")
+                .doesNotContain("spring.main.banner-mode = off");
+    }
+
+    static final class NonEnumerablePropertySource extends PropertySource<Map<String, Object>> {
+
+        NonEnumerablePropertySource(Map<String, Object> source) {
+            super("nonEnumerable", source);
+        }
+
+        @Override
+        public @Nullable Object getProperty(String name) {
+            return getSource().get(name);
+        }
+    }
+}
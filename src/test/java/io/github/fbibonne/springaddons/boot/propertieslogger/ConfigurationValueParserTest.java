@@ -0,0 +1,90 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ConfigurationValueParserTest {
+
+    private static final Map<String, Class<?>> TYPES_FROM_METADATA = Map.of(
+            "java.lang.Boolean", Boolean.class,
+            "java.lang.Integer", Integer.class,
+            "java.lang.Long", Long.class,
+            "java.lang.Double", Double.class,
+            "java.lang.String", String.class,
+            "java.util.Set<java.lang.String>", Set.class);
+
+    @ParameterizedTest
+    @CsvSource({"true, true", "ON, true", "yes, true", "1, true", "false, false", "Off, false", "no, false", "0, false"})
+    void parseBooleanTest(String rawValue, boolean expected) {
+        assertThat(ConfigurationValueParser.parse(rawValue, boolean.class)).isEqualTo(expected);
+    }
+
+    @Test
+    void parseSetShouldTrimElements() {
+        Set<?> elements = ConfigurationValueParser.parse(" a, b ,c", Set.class);
+        Set<?> noElement = ConfigurationValueParser.parse("", Set.class);
+
+        assertThat(elements.toArray()).containsExactly("a", "b", "c");
+        assertThat(noElement).isEmpty();
+    }
+
+    @Test
+    void parseNumbersTest() {
+        assertThat(ConfigurationValueParser.parse(" 42 ", int.class)).isEqualTo(42);
+        assertThat(ConfigurationValueParser.parse("0x10", long.class)).isEqualTo(16L);
+        assertThat(ConfigurationValueParser.parse("3.5", double.class)).isEqualTo(3.5);
+        assertThatIllegalArgumentException().isThrownBy(() -> ConfigurationValueParser.parse("maybe", boolean.class));
+        assertThatIllegalArgumentException().isThrownBy(() -> ConfigurationValueParser.parse("ten", int.class));
+    }
+
+    @Test
+    void everyPropertyOfMetadataShouldBeReadAndParseableWithoutConversionService() throws IOException {
+        List<Map<String, Object>> properties;
+        try (InputStream metadata = new ClassPathResource("META-INF/spring-configuration-metadata.json").getInputStream()) {
+            properties = JsonPath.read(metadata, "$.properties[*]");
+        }
+
+        assertThat(properties.stream().map(property -> (String) property.get("name")).collect(Collectors.toSet()))
+                .isEqualTo(keysReadByListener());
+        properties.forEach(property -> {
+            Class<?> type = TYPES_FROM_METADATA.get((String) property.get("type"));
+            assertThat(type).as("type of %s", property.get("name")).isNotNull();
+            assertThat(ConfigurationValueParser.parse(asRawValue(property.get("defaultValue")), type)).isNotNull();
+        });
+    }
+
+    private static String asRawValue(Object defaultValue) {
+        if (defaultValue instanceof Collection<?> collection) {
+            return collection.stream().map(Object::toString).collect(Collectors.joining(","));
+        }
+        return String.valueOf(defaultValue);
+    }
+
+    private static Set<String> keysReadByListener() {
+        Set<String> keys = new HashSet<>();
+        for (Field field : EnvironmentPreparedEventForPropertiesLogging.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getName().startsWith("KEY_FOR_")) {
+                field.setAccessible(true);
+                try {
+                    keys.add((String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyWatchlistTest {
+
+    private static final KeyWatchlist WATCHLIST = new KeyWatchlist(List.of("spring.datasource.url", "server.*.timeout",
+            "server.port*", "spring.*", "a.b.c*", "a.*z", "*.suffix"));
+
+    @ParameterizedTest
+    @CsvSource({
+            "spring.datasource.url, true",
+            "spring.datasource.username, true",
+            "server.tomcat.timeout, true",
+            "server.port, true",
+            "server.tomcat.threads, false",
+            "a.b.c.d, true",
+            "a.b.z, true",
+            "a.b.d, false",
+            "a.c, false",
+            "any.suffix, true",
+            "logging.level.root, false",
+            "spring, false"
+    })
+    void keyShouldMatchExactKeysOrGlobs(String key, boolean expected) {
+        assertThat(WATCHLIST.matches(key)).isEqualTo(expected);
+    }
+
+    @Test
+    void exactKeysShouldBeSeparatedFromGlobs() {
+        assertThat(WATCHLIST.exactKeys()).containsExactly("spring.datasource.url");
+        assertThat(WATCHLIST.globLiteralPrefixes()).containsExactlyInAnyOrder("server.", "server.port", "spring.", "a.b.c", "a.", "");
+        assertThat(WATCHLIST.matchesGlob("spring.datasource.url")).isTrue();
+        assertThat(KeyWatchlist.EMPTY.isEnabled()).isFalse();
+    }
+
+    @Test
+    void exactKeysShouldBeDisplayedWithoutEnumeratingPropertySources() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new NotToEnumeratePropertySource(Map.of(
+                "spring.datasource.url", "jdbc:postgresql://localhost/db",
+                "spring.datasource.password", "s3cr3t",
+                "spring.main.banner-mode", "off",
+                "com.pool-size", "10")));
+        PropertiesLogger propertiesLogger = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.keys", "spring.datasource.url, spring.datasource.password, com.pool-size, com.missing"))
+                .newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        assertThat(propertiesLogger.doLogProperties()).extracting(DisplayedProperty::plainLine).satisfiesExactly(
+                line -> assertThat(line).startsWith("com.pool-size = 10 ### "),
+                line -> assertThat(line).startsWith("spring.datasource.password = " + PropertiesLogger.MASK + " ### "),
+                line -> assertThat(line).startsWith("spring.datasource.url = jdbc:postgresql://localhost/db ### "));
+    }
+
+    @Test
+    void globsShouldSelectKeysOfEnumerablePropertySources() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("application", Map.of(
+                "spring.datasource.hikari.maximum-pool-size", "20",
+                "spring.datasource.hikari.minimum-idle", "2",
+                "spring.datasource.url", "jdbc:h2:mem:db",
+                "com.pool-size", "10")));
+        PropertiesLogger propertiesLogger = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.keys", "spring.datasource.hikari.*-pool-size, com.pool-size"))
+                .newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        assertThat(propertiesLogger.doLogProperties()).extracting(DisplayedProperty::key)
+                .containsExactly("com.pool-size", "spring.datasource.hikari.maximum-pool-size");
+    }
+
+    static final class NotToEnumeratePropertySource extends EnumerablePropertySource<Map<String, Object>> {
+
+        NotToEnumeratePropertySource(Map<String, Object> source) {
+            super("notToEnumerate", source);
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            throw new AssertionError("Property source should not be enumerated");
+        }
+
+        @Override
+        public @Nullable Object getProperty(String name) {
+            return getSource().get(name);
+        }
+    }
+}
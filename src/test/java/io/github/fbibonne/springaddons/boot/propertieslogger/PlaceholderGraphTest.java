@@ -0,0 +1,106 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class PlaceholderGraphTest {
+
+    private static StandardEnvironment environment() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("com.plain", "plain");
+        values.put("com.number", 42);
+        values.put("com.name", "plain");
+        values.put("com.ref", "${com.plain}-ref");
+        values.put("com.chain", "[${com.ref}|${com.number}]");
+        values.put("com.nested.key", "com.${com.name}");
+        values.put("com.nested", "${${com.nested.key}}");
+        values.put("com.default", "${com.missing:default-${com.plain}}");
+        values.put("com.default.nested", "${com.missing:${com.other.missing:last}}");
+        values.put("com.escaped", "\\${com.plain} and ${com.plain}");
+        values.put("com.unresolved", "${com.missing}/${com.plain}/${com.missing2}");
+        values.put("com.unclosed", "${com.plain");
+        values.put("com.cycle.a", "a-${com.cycle.b}");
+        values.put("com.cycle.b", "b-${com.cycle.a}");
+        values.put("com.self", "${com.self}");
+        values.put("com.on.cycle", "${com.cycle.a}");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("values", values));
+        environment.getPropertySources().addFirst(new MapPropertySource("overriding", Map.of("com.name", "ref")));
+        return environment;
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            "com.plain          | plain",
+            "com.number         | 42",
+            "com.ref            | plain-ref",
+            "com.chain          | \"[plain-ref|42]\"",
+            "com.nested         | plain-ref",
+            "com.default        | default-plain",
+            "com.default.nested | last",
+            "com.escaped        | ${com.plain} and plain",
+            "com.unresolved     | ${com.missing}/plain/${com.missing2}",
+            "com.unclosed       | ${com.plain",
+            "com.cycle.a        | a-${com.cycle.b}",
+            "com.on.cycle       | ${com.cycle.a}",
+            "com.self           | ${com.self}"
+    })
+    void valuesShouldBeResolvedLikeTheEnvironmentWithoutException(String key, String expected) {
+        assertThat(new PlaceholderGraph(environment().getPropertySources()).resolvedValueOf(key)).isEqualTo(expected);
+    }
+
+    @Test
+    void resolvableValuesShouldBeEqualToValuesOfEnvironment() {
+        StandardEnvironment environment = environment();
+        PlaceholderGraph placeholderGraph = new PlaceholderGraph(environment.getPropertySources());
+
+        for (String key : new String[]{"com.plain", "com.number", "com.ref", "com.chain", "com.nested", "com.default", "com.default.nested", "com.escaped"}) {
+            assertThat(placeholderGraph.resolvedValueOf(key)).as(key).isEqualTo(environment.getProperty(key));
+        }
+        assertThat(placeholderGraph.resolvedValueOf("com.absent")).isNull();
+        assertThat(placeholderGraph.hasUnresolvedOrCyclicPlaceholders()).isFalse();
+    }
+
+    @Test
+    void unresolvedAndCyclicPlaceholdersShouldBeSummarized() {
+        PlaceholderGraph placeholderGraph = new PlaceholderGraph(environment().getPropertySources());
+
+        for (String key : new String[]{"com.unresolved", "com.on.cycle", "com.self", "com.default"}) {
+            placeholderGraph.resolvedValueOf(key);
+        }
+
+        assertThat(placeholderGraph.hasUnresolvedOrCyclicPlaceholders()).isTrue();
+        assertThat(placeholderGraph.summary()).isEqualTo(String.join(System.lineSeparator(),
+                "Unresolved placeholders :",
+                "- com.unresolved -> ${com.missing}, ${com.missing2}",
+                "Cyclic placeholders :",
+                "- com.cycle.a -> com.cycle.b -> com.cycle.a",
+                "- com.self -> com.self"));
+    }
+
+    @Test
+    void summaryShouldBeLoggedWhenEnabled(CapturedOutput output) {
+        PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.prefix-for-properties", "com")
+                .withProperty("properties.logger.placeholders-summary.enabled", "true")
+        ).logProperties(environment());
+
+        assertThat(output.toString()).contains("com.unresolved = ${com.missing}/plain/${com.missing2}",
+                "Unresolved placeholders :" + System.lineSeparator() + "- com.unresolved -> ${com.missing}, ${com.missing2}",
+                "- com.cycle.a -> com.cycle.b -> com.cycle.a");
+    }
+}
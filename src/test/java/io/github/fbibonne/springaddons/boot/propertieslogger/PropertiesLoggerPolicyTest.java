@@ -0,0 +1,65 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class PropertiesLoggerPolicyTest {
+
+    @Test
+    void policyShouldBeCompiledAgainOnlyWhenRawConfigurationChanges() {
+        PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(new MockEnvironment().withProperty("properties.logger.prefix-for-properties", "com.policy"));
+
+        assertThat(PropertiesLoggerPolicy.of(new MockEnvironment().withProperty("properties.logger.prefix-for-properties", "com.policy")))
+                .isSameAs(policy);
+        assertThat(PropertiesLoggerPolicy.of(new MockEnvironment().withProperty("properties.logger.prefix-for-properties", "com.policy, org")))
+                .isNotSameAs(policy);
+        assertThat(PropertiesLoggerPolicy.of(new MockEnvironment())).isSameAs(PropertiesLoggerPolicy.DEFAULT);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'com.app.password', true, com.app.",
+            "'com.app.DB_PWD', true, com.app.",
+            "'com.application.name', false, com",
+            "'com.other.name', false, com",
+            "'org.name', false, ''"
+    })
+    void compiledMatchersTest(String key, boolean masked, String longestPrefix) {
+        PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com, com.app.")
+                .withProperty("properties.logger.with-hidden-values", "password, pwd"));
+
+        assertThat(policy.mustBeMasked(key)).isEqualTo(masked);
+        assertThat(policy.hasAllowedPrefix(key)).isEqualTo(!longestPrefix.isEmpty());
+        assertThat(policy.longestAllowedPrefixOf(key)).isEqualTo(longestPrefix);
+        assertThat(policy.isIgnored(new MapPropertySource("systemEnvironment", Map.of()))).isTrue();
+        assertThat(policy.isIgnored(new MapPropertySource("applicationConfig", Map.of()))).isFalse();
+    }
+
+    @Test
+    void propertiesShouldBeLoggedProgrammaticallyFromAnyThread(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("programmatic", Map.of("com.dump.key", "value")));
+        PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.disabled", "true")
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.prefix-for-properties", "com.dump"));
+
+        CompletableFuture.runAsync(() -> policy.logProperties(environment)).join();
+
+        assertThat(output.toString()).contains("com.dump.key = value ### FROM \"com.dump.key\" from property source \"programmatic\" ###");
+    }
+}
@@ -33,7 +33,7 @@ class PropertiesLoggerTest {
             "'longer.is.not.contained','longer.is.not.contained+', false"
     })
     void isValueContainedIgnoringCaseInTest(String container, String value, boolean expected) {
-        PropertiesLogger propertiesLogger = new PropertiesLogger(null, null, null,
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.DEFAULT,
                 new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(new MockEnvironment())
         );
         assertThat(propertiesLogger.isValueContainedIgnoringCaseIn(container).test(value)).isEqualTo(expected);
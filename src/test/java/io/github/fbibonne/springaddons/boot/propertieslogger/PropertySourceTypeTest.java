@@ -0,0 +1,101 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.env.OriginTrackedMapPropertySource;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertySourceTypeTest {
+
+    @Test
+    void mapPropertySourceKeysShouldBeFiltered() {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("com.key1", "value1");
+        source.put("other.key", "value");
+        source.put("com.key2", "value2");
+
+        assertThat(PropertySourceType.propertyNamesOf(new MapPropertySource("map", source), name -> name.startsWith("com.")))
+                .containsExactly("com.key1", "com.key2");
+        assertThat(PropertySourceType.propertyNamesOf(new OriginTrackedMapPropertySource("originTracked", source), name -> name.startsWith("com.")))
+                .containsExactly("com.key1", "com.key2");
+    }
+
+    @Test
+    void subclassesOverridingPropertyNamesShouldBeEnumeratedWithTheirPropertyNames() {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("com.visible", "value");
+        source.put("com.hidden", "value");
+        MapPropertySource filteringPropertySource = new MapPropertySource("filtering", source) {
+            @Override
+            public String[] getPropertyNames() {
+                return new String[]{"com.visible"};
+            }
+        };
+
+        assertThat(PropertySourceType.propertyNamesOf(filteringPropertySource, name -> name.startsWith("com.")))
+                .containsExactly("com.visible");
+    }
+
+    @Test
+    void propertiesPropertySourceShouldSkipNonStringKeys() {
+        Properties properties = new Properties();
+        properties.put("com.key", "value");
+        properties.put(1, "non string key");
+        properties.put("other.key", "value");
+
+        assertThat(PropertySourceType.propertyNamesOf(new PropertiesPropertySource("properties", properties), name -> name.startsWith("com.")))
+                .containsExactly("com.key");
+    }
+
+    @Test
+    void compositePropertySourceShouldListDistinctKeysOfNestedSources() {
+        CompositePropertySource nestedComposite = new CompositePropertySource("nested");
+        nestedComposite.addPropertySource(new MapPropertySource("nested-map", Map.of("com.key2", "nested", "com.key3", "value3")));
+        CompositePropertySource composite = new CompositePropertySource("composite");
+        composite.addPropertySource(new MapPropertySource("map", Map.of("com.key1", "value1", "com.key2", "value2", "other.key", "value")));
+        composite.addPropertySource(nestedComposite);
+        composite.addPropertySource(new NonEnumerablePropertySource());
+
+        assertThat(PropertySourceType.propertyNamesOf(composite, name -> name.startsWith("com.")))
+                .containsExactlyInAnyOrder("com.key1", "com.key2", "com.key3");
+    }
+
+    @Test
+    void otherEnumerablePropertySourcesShouldFallBackToPropertyNames() {
+        EnumerablePropertySource<Object> propertySource = new EnumerablePropertySource<>("custom", new Object()) {
+            @Override
+            public String[] getPropertyNames() {
+                return new String[]{"com.key", "other.key"};
+            }
+
+            @Override
+            public Object getProperty(String name) {
+                return "value";
+            }
+        };
+
+        assertThat(PropertySourceType.propertyNamesOf(propertySource, name -> name.startsWith("com.")))
+                .containsExactly("com.key");
+    }
+
+    private static final class NonEnumerablePropertySource extends PropertySource<Object> {
+
+        NonEnumerablePropertySource() {
+            super("non-enumerable", new Object());
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportSinkTest {
+
+    @Test
+    void fileSinkShouldAppendReports(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("logs").resolve("properties.log");
+        ReportSink reportSink = ReportSinks.of("file", file.toString(), false);
+
+        reportSink.write(() -> "first report");
+        reportSink.write(() -> "second report é");
+
+        assertThat(Files.readString(file)).isEqualTo("first report" + System.lineSeparator() + "second report é" + System.lineSeparator());
+    }
+
+    @Test
+    void reportsWrittenToFileShouldNotBeColorized(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("properties.log");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of("com.example.name", "value")));
+
+        PropertiesLoggerPolicy.of(new MockEnvironment()
+                        .withProperty("properties.logger.prefix-for-properties", "com.example")
+                        .withProperty("properties.logger.output.type", "file")
+                        .withProperty("properties.logger.output.file", file.toString()))
+                .newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment))
+                .doLogProperties();
+
+        assertThat(Files.readString(file)).contains("com.example.name = value ### ").doesNotContain("\u001B[");
+        assertThat(ReportSinks.of("file", file.toString(), true).supportsColoration()).isFalse();
+        assertThat(ReportSinks.of("slf4j", "", false).supportsColoration()).isTrue();
+    }
+
+    @Test
+    void asyncSinkShouldWriteAllReportsInOrderThenFlush() {
+        List<String> writtenReports = new CopyOnWriteArrayList<>();
+        AsyncReportSink asyncReportSink = new AsyncReportSink(report -> writtenReports.add(report.get()));
+        List<String> reports = IntStream.range(0, AsyncReportSink.CAPACITY * 4).mapToObj(i -> "report " + i).toList();
+
+        reports.forEach(report -> asyncReportSink.write(() -> report));
+
+        assertThat(asyncReportSink.awaitFlush(Duration.ofSeconds(5))).isTrue();
+        assertThat(writtenReports).containsExactlyInAnyOrderElementsOf(reports);
+    }
+
+    @Test
+    void asyncSinkShouldBeSharedByThePassesOfAPolicyAndStopOnceDrained(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("properties.log");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of("com.example.name", "value")));
+        PropertiesLoggerPolicy policy = PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com.example")
+                .withProperty("properties.logger.output.type", "file")
+                .withProperty("properties.logger.output.file", file.toString())
+                .withProperty("properties.logger.output.async", "true"));
+
+        IntStream.range(0, 3).forEach(pass -> policy.logProperties(environment));
+
+        AsyncReportSink asyncReportSink = (AsyncReportSink) policy.reportSink();
+        assertThat(policy.newPropertiesLogger(new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment)).reportSink)
+                .isSameAs(asyncReportSink);
+        assertThat(asyncReportSink.awaitFlush(Duration.ofSeconds(5))).isTrue();
+        assertThat(Files.readAllLines(file)).filteredOn(line -> line.startsWith("com.example.name = value")).hasSize(3);
+        assertThat(Thread.getAllStackTraces().keySet()).extracting(Thread::getName)
+                .doesNotContain("properties-logger-report-sink", "properties-logger-report-sink-flush");
+    }
+
+    @Test
+    void ringBufferShouldBeBoundedAndFifo() {
+        SpscRingBuffer<String> ringBuffer = new SpscRingBuffer<>(3);
+        assertThat(ringBuffer.capacity()).isEqualTo(4);
+        IntStream.range(0, 4).forEach(i -> assertThat(ringBuffer.offer("e" + i)).isTrue());
+        assertThat(ringBuffer.offer("e4")).isFalse();
+        assertThat(ringBuffer.poll()).isEqualTo("e0");
+        assertThat(ringBuffer.offer("e4")).isTrue();
+        assertThat(IntStream.range(0, 4).mapToObj(i -> ringBuffer.poll())).containsExactly("e1", "e2", "e3", "e4");
+        assertThat(ringBuffer.poll()).isNull();
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void unknownTypeShouldFallbackToSlf4j() {
+        assertThat(ReportSinks.of("unknown", "", false)).isInstanceOf(ReportSink.Slf4jReportSink.class);
+        assertThat(ReportSinks.of("file", " ", false)).isInstanceOf(ReportSink.Slf4jReportSink.class);
+        assertThat(ReportSinks.of("FILE", "target/report.log", true)).isInstanceOf(AsyncReportSink.class);
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ResolutionDeadlinesTest {
+
+    @Test
+    void slowKeysShouldBeReportedAsTimedOutWithinTotalDeadline(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SleepingPropertySource("remote", Duration.ofSeconds(10), "com.slow.a", "com.slow.b", "com.slow.c"));
+        environment.getPropertySources().addLast(new MapPropertySource("local", Map.of("com.fast", "fast")));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.resolution.timeout-per-key-millis", "100")
+                .withProperty("properties.logger.resolution.timeout-total-millis", "1000")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        long start = System.nanoTime();
+        propertiesLogger.doLogProperties();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(3));
+        assertThat(output.toString()).contains("com.slow.a = <timed out>", "com.slow.b = <timed out>", "com.slow.c = <timed out>",
+                "com.fast = fast", "3 properties not resolved within the resolution deadlines");
+    }
+
+    @Test
+    void valuesOfTimedOutResolutionsShouldNotBeReusedByPlaceholders(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SleepingPropertySource("remote", Duration.ofSeconds(10), "com.a.slow"));
+        environment.getPropertySources().addLast(new MapPropertySource("local", Map.of("com.b.reference", "${com.a.slow}")));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.placeholders-summary.enabled", "true")
+                .withProperty("properties.logger.resolution.timeout-per-key-millis", "100")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        propertiesLogger.doLogProperties();
+
+        // the interrupted lookup of com.a.slow returned null : it must not make com.b.reference unresolved
+        assertThat(output.toString()).contains("com.a.slow = <timed out>", "com.b.reference = <timed out>",
+                        "2 properties not resolved within the resolution deadlines")
+                .doesNotContain("Unresolved placeholders");
+    }
+
+    @Test
+    void withoutTimeoutPropertiesShouldBeResolvedOnCallingThread(CapturedOutput output) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SleepingPropertySource("remote", Duration.ofMillis(10), "com.slow.a"));
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        propertiesLogger.doLogProperties();
+
+        assertThat(output.toString()).contains("com.slow.a").contains(Thread.currentThread().getName())
+                .doesNotContain("<timed out>", "resolution deadlines");
+    }
+
+    @Test
+    void resolutionsIgnoringInterruptionsShouldHoldAtMostTheBoundedNumberOfThreads(CapturedOutput output) {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> resolutionThreads = ConcurrentHashMap.newKeySet();
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("stuck", Map.of("com.stuck.1", "", "com.stuck.2", "",
+                "com.stuck.3", "", "com.stuck.4", "", "com.stuck.5", "", "com.stuck.6", "")) {
+            @Override
+            public Object getProperty(String name) {
+                resolutionThreads.add(Thread.currentThread().getName());
+                boolean released = false;
+                while (!released) {
+                    try {
+                        released = release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // interruption ignored like a blocking client which does not support it
+                    }
+                }
+                return "released";
+            }
+        });
+        PropertiesLogger propertiesLogger = new PropertiesLogger(PropertiesLoggerPolicy.of(new MockEnvironment()
+                .withProperty("properties.logger.prefix-for-properties", "com")
+                .withProperty("properties.logger.coloration.disabled", "true")
+                .withProperty("properties.logger.resolution.timeout-per-key-millis", "50")), new EnvironmentPreparedEventForPropertiesLogging.CustomAbstractEnvironment(environment));
+
+        try {
+            propertiesLogger.doLogProperties();
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(resolutionThreads).hasSizeLessThanOrEqualTo(ResolutionDeadlines.MAX_RESOLUTION_THREADS);
+        assertThat(output.toString()).contains("6 properties not resolved within the resolution deadlines");
+    }
+
+    /**
+     * Stand-in for a property source backed by a remote client blocking on I/O : its values are its thread names
+     */
+    static final class SleepingPropertySource extends EnumerablePropertySource<Object> {
+
+        private final Duration sleep;
+        private final String[] propertyNames;
+
+        SleepingPropertySource(String name, Duration sleep, String... propertyNames) {
+            super(name, new Object());
+            this.sleep = sleep;
+            this.propertyNames = propertyNames;
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            return propertyNames.clone();
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            if (!Set.of(propertyNames).contains(name)) {
+                return null;
+            }
+            try {
+                Thread.sleep(sleep.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return Thread.currentThread().getName();
+        }
+    }
+}
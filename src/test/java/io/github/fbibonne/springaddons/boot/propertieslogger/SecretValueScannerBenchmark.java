@@ -0,0 +1,69 @@
+package io.github.fbibonne.springaddons.boot.propertieslogger;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the cost of {@link SecretValueScanner} for the values of 20 000 properties : compare {@code scanValues}
+ * with {@code baseline} which only iterates over the values. Run it with :
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) org.openjdk.jmh.Main SecretValueScannerBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecretValueScannerBenchmark {
+
+    private static final int PROPERTIES_COUNT = 20_000;
+
+    private String[] values;
+    private SecretValueScanner secretValueScanner;
+
+    @Setup
+    public void generateValues() {
+        Random random = new Random(42);
+        values = new String[PROPERTIES_COUNT];
+        for (int i = 0; i < PROPERTIES_COUNT; i++) {
+            values[i] = switch (i % 8) {
+                case 0 -> "jdbc:postgresql://user" + i + ":pass" + random.nextInt() + "@host-" + i + ":5432/db";
+                case 1 -> "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOi" + i + ".c2lnbmF0dXJl";
+                case 2 -> Long.toString(random.nextLong(), 36) + Long.toString(random.nextLong(), 36);
+                case 3 -> "true";
+                case 4 -> Integer.toString(random.nextInt(10_000));
+                case 5 -> "classpath:/config/application-" + i + ".yaml";
+                case 6 -> "org.springframework.boot.autoconfigure.Some" + i + "AutoConfiguration";
+                default -> "a human readable value number " + i;
+            };
+        }
+        secretValueScanner = new SecretValueScanner(true, 4.0);
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(value);
+        }
+    }
+
+    @Benchmark
+    public void scanValues(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(secretValueScanner.maskSecrets(value));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SecretValueScannerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
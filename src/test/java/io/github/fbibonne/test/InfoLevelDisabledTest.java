@@ -0,0 +1,43 @@
+package io.github.fbibonne.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class InfoLevelDisabledTest {
+
+    private static final String PACKAGE = "io.github.fbibonne.springaddons.boot.propertieslogger";
+
+    @AfterEach
+    void resetLogLevels() {
+        LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.setLogLevel(PACKAGE, null);
+        loggingSystem.setLogLevel(PACKAGE + ".PropertiesLogger", null);
+    }
+
+    @Test
+    void noReportShouldBeComputedWhenInfoIsDisabledForPropertiesLogger(CapturedOutput capturedOutput) {
+        try (ConfigurableApplicationContext context = SpringApplication.run(VerySimpleSpringBootApplication.class,
+                "--logging.level." + PACKAGE + "=DEBUG",
+                "--logging.level." + PACKAGE + ".PropertiesLogger=WARN",
+                "--properties.logger.prefix-for-properties=io.github.fbibonne.level",
+                "--io.github.fbibonne.level.key=value",
+                "--spring.main.web-application-type=none")) {
+            assertThat(context.isActive()).isTrue();
+        }
+        assertThat(capturedOutput.toString()).contains("Level INFO is disabled for PropertiesLogger : properties are not logged")
+                .doesNotContain("Values of properties from sources", "io.github.fbibonne.level.key");
+    }
+
+    @Configuration
+    static class VerySimpleSpringBootApplication {}
+}
@@ -0,0 +1,49 @@
+package io.github.fbibonne.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "properties.logger.coloration.disabled=true",
+        "properties.logger.prefix-for-properties = com.budget",
+        "properties.logger.max-lines = 14",
+        "properties.logger.max-value-length = 5",
+        "com.budget.long-value = abcdefghij"
+}, args = {"--com.budget.a=a", "--com.budget.b=b", "--com.budget.c=c", "--com.budget.d=d"})
+@ExtendWith(OutputCaptureExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class LogVolumeBudgetTest {
+
+    @Test
+    @DisplayName("Properties from sources with the highest precedence should be displayed first until the budget is reached, remaining ones should be summarized")
+    void propertiesShouldBeDisplayedWithinBudget(CapturedOutput output) {
+        String logOutput = output.toString();
+        assertThat(logOutput)
+                .contains("com.budget.long-value = abcde... (+5 chars) ### FROM \"com.budget.long-value\" from property source \"Inlined Test Properties\" ###")
+                .contains("2 properties not displayed to respect the log volume budget : com.budget (2)");
+        assertThat(logOutput.lines().filter(line -> line.startsWith("com.budget."))).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("The header, the properties, the summary and the report hash should fit into the maximum number of lines")
+    void wholeMessageShouldRespectMaxLines(CapturedOutput output) {
+        List<String> outputLines = output.toString().lines().toList();
+        int firstLine = outputLines.indexOf(outputLines.stream().filter(line -> line.contains("PropertiesLogger")).findFirst().orElseThrow());
+        int lastLine = outputLines.indexOf(outputLines.stream().filter(line -> line.startsWith("Report hash (SHA-256) : ")).findFirst().orElseThrow());
+        // 8 lines of header (4 property sources), 3 properties, the summary, the separator and the report hash
+        assertThat(lastLine - firstLine + 1).isEqualTo(14);
+    }
+
+    @SpringBootApplication
+    static class ConfigurationForTest {}
+}
@@ -0,0 +1,45 @@
+package io.github.fbibonne.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "properties.logger.coloration.disabled=true",
+        "properties.logger.overrides.enabled=true",
+        "properties.logger.prefix-for-properties = spring.datasource, com.overrides",
+        "com.overrides.password = inlinedSecret",
+        "com.overrides.single = single"
+}, args = "--com.overrides.password=argsSecret")
+@ExtendWith(OutputCaptureExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class OverriddenValuesTest {
+
+    @Test
+    @DisplayName("Properties defined by many sources (even ignored ones) should be followed by their definitions in precedence order with masked values")
+    void overriddenPropertiesShouldListAllTheirDefinitions(CapturedOutput output) {
+        assertThat(output.toString())
+                .contains(("""
+                        spring.datasource.username = user_prod ### FROM System Environment Property "SPRING_DATASOURCE_USERNAME" ###
+                            1. systemEnvironment = user_prod
+                            2. Config resource 'class path resource [application.properties]' via location 'optional:classpath:/' = user_dev
+                        """).replace("\n", System.lineSeparator()))
+                .contains(("""
+                        com.overrides.password = ****** ### FROM "com.overrides.password" from property source "Inlined Test Properties" ###
+                            1. Inlined Test Properties = ******
+                            2. commandLineArgs = ******
+                        """).replace("\n", System.lineSeparator()))
+                .contains("com.overrides.single = single ### FROM \"com.overrides.single\" from property source \"Inlined Test Properties\" ###" + System.lineSeparator() + "spring.datasource.username")
+                .doesNotContain("inlinedSecret", "argsSecret");
+    }
+
+    @SpringBootApplication
+    static class ConfigurationForTest {}
+}
@@ -0,0 +1,38 @@
+package io.github.fbibonne.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "properties.logger.coloration.disabled=true",
+        "properties.logger.relaxed-names.enabled=true",
+        "properties.logger.prefix-for-properties = com.relaxed",
+        "com.relaxed.dataSource.url = inlined",
+        "com.relaxed.single = single"
+}, args = {"--com.relaxed.data-source.url=args", "--com.relaxed.datasource.url=otherArgs"})
+@ExtendWith(OutputCaptureExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RelaxedNamesTest {
+
+    @Test
+    @DisplayName("Relaxed forms of a same property should be displayed once with the form of the source with the highest precedence")
+    void relaxedFormsShouldBeDisplayedOnce(CapturedOutput output) {
+        String logOutput = output.toString();
+        assertThat(logOutput)
+                .contains("com.relaxed.dataSource.url = inlined ### FROM \"com.relaxed.dataSource.url\" from property source \"Inlined Test Properties\" ###")
+                .contains("com.relaxed.single = single")
+                .doesNotContain("com.relaxed.data-source.url", "com.relaxed.datasource.url", "WARNING !");
+        assertThat(logOutput.lines().filter(line -> line.startsWith("com.relaxed."))).hasSize(2);
+    }
+
+    @SpringBootApplication
+    static class ConfigurationForTest {}
+}
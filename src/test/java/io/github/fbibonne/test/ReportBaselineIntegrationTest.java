@@ -0,0 +1,52 @@
+package io.github.fbibonne.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ReportBaselineIntegrationTest {
+
+    @Test
+    void secondInstanceShouldOnlyLogDifferencesWithBaseline(@TempDir Path baselineDirectory, CapturedOutput capturedOutput) {
+        startApplication(baselineDirectory, "same", "first");
+        String firstOutput = capturedOutput.toString();
+        assertThat(baselineDirectory.resolve("properties-logger.baseline")).exists();
+        assertThat(firstOutput).contains("io.github.fbibonne.baseline.same = same", "io.github.fbibonne.baseline.specific = first", "Report hash (SHA-256) : ");
+
+        startApplication(baselineDirectory, "same", "second");
+        String secondOutput = capturedOutput.toString().substring(firstOutput.length());
+        assertThat(secondOutput).contains("Properties differing from baseline " + baselineDirectory.resolve("properties-logger.baseline"),
+                        "io.github.fbibonne.baseline.specific = second")
+                .doesNotContain("io.github.fbibonne.baseline.same");
+
+        startApplication(baselineDirectory, "same", "first");
+        String thirdOutput = capturedOutput.toString().substring(firstOutput.length() + secondOutput.length());
+        assertThat(thirdOutput).contains("Properties identical to baseline " + baselineDirectory.resolve("properties-logger.baseline"))
+                .doesNotContain("io.github.fbibonne.baseline.");
+    }
+
+    private static void startApplication(Path baselineDirectory, String sameValue, String specificValue) {
+        try (ConfigurableApplicationContext context = SpringApplication.run(VerySimpleSpringBootApplication.class,
+                "--properties.logger.baseline.location=" + baselineDirectory,
+                "--properties.logger.prefix-for-properties=io.github.fbibonne.baseline",
+                "--properties.logger.coloration.disabled=true",
+                "--io.github.fbibonne.baseline.same=" + sameValue,
+                "--io.github.fbibonne.baseline.specific=" + specificValue,
+                "--spring.main.web-application-type=none")) {
+            assertThat(context.isActive()).isTrue();
+        }
+    }
+
+    @Configuration
+    static class VerySimpleSpringBootApplication {}
+}
@@ -0,0 +1,214 @@
+package io.github.fbibonne.test;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Macro-benchmark of the startup of minimal applications ({@code SpringApplication.run}) with generated configurations,
+ * to measure what the library adds to real startups. For each combination of the matrix :
+ * <ul>
+ *     <li>application type : {@code none} (like {@link ExternalPropertiesFilesIntegrationTest}) or {@code servlet} (like
+ *     {@link WebAppIntegrationTest}, auto-configured with a random port)</li>
+ *     <li>number of generated keys, spread over a number of generated properties files (one property source per file)</li>
+ *     <li>mode of the library : {@code disabled}, {@code slf4j} (default output), {@code file} or {@code async}
+ *     (asynchronous SLF4J output)</li>
+ * </ul>
+ * the application is started a number of times, each time in a fresh forked JVM. Each fork reports the duration of
+ * {@code SpringApplication.run}, the uptime of the JVM once the application is started and the bytes allocated by the
+ * live threads at this time. Percentiles (p50, p90, p99 and max) of these metrics are written in
+ * {@code target/startup-benchmark/results.csv}.
+ * <br/>
+ * The matrix is configured with system properties {@code benchmark.apps}, {@code benchmark.keys}, {@code benchmark.sources},
+ * {@code benchmark.modes} and {@code benchmark.runs} (comma separated values). Run it with :
+ * <pre>
+ * mvn -B test-compile exec:exec -Pstartup-benchmark -Dbenchmark.keys=100,10000 -Dbenchmark.runs=3
+ * </pre>
+ */
+public class StartupMacroBenchmark {
+
+    private static final Path OUTPUT_DIRECTORY = Path.of("target", "startup-benchmark");
+    private static final String RESULT_PREFIX = "STARTUP-BENCHMARK-RESULT ";
+    private static final int KEYS_PER_GROUP = 100;
+    private static final int PLACEHOLDER_PERIOD = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final List<String> apps = listProperty("benchmark.apps", "none,servlet");
+        final List<Integer> keyCounts = listProperty("benchmark.keys", "100,1000,10000,100000").stream().map(Integer::valueOf).toList();
+        final List<Integer> sourceCounts = listProperty("benchmark.sources", "1,10,50").stream().map(Integer::valueOf).toList();
+        final List<String> modes = listProperty("benchmark.modes", "disabled,slf4j,file,async");
+        final int runs = Integer.parseInt(System.getProperty("benchmark.runs", "5"));
+
+        Files.createDirectories(OUTPUT_DIRECTORY);
+        final Path resultsFile = OUTPUT_DIRECTORY.resolve("results.csv");
+        try (Writer results = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8)) {
+            results.write("app,keys,sources,mode,runs,"
+                    + metricColumns("run_millis") + "," + metricColumns("uptime_millis") + "," + metricColumns("allocated_bytes")
+                    + System.lineSeparator());
+            for (int keyCount : keyCounts) {
+                for (int sourceCount : sourceCounts) {
+                    final String configLocations = generateConfiguration(keyCount, sourceCount);
+                    for (String app : apps) {
+                        for (String mode : modes) {
+                            final List<long[]> measures = new ArrayList<>(runs);
+                            for (int run = 0; run < runs; run++) {
+                                measures.add(startInForkedJvm(app, mode, configLocations, run));
+                            }
+                            final String line = app + "," + keyCount + "," + sourceCount + "," + mode + "," + runs + ","
+                                    + percentiles(measures, 0) + "," + percentiles(measures, 1) + "," + percentiles(measures, 2);
+                            System.out.println(line);
+                            results.write(line + System.lineSeparator());
+                            results.flush();
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Results written in " + resultsFile.toAbsolutePath());
+    }
+
+    private static List<String> listProperty(String name, String defaultValue) {
+        return Arrays.stream(System.getProperty(name, defaultValue).split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+
+    private static String metricColumns(String metric) {
+        return Arrays.stream(new String[]{"p50", "p90", "p99", "max"}).map(p -> metric + "_" + p).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Generates {@code keyCount} keys {@code bench.group-<g>.key-<i>} spread over {@code sourceCount} properties files. One
+     * value out of {@value #PLACEHOLDER_PERIOD} contains a placeholder to another key.
+     *
+     * @return the value of {@code spring.config.additional-location} to load the generated files
+     */
+    private static String generateConfiguration(int keyCount, int sourceCount) throws IOException {
+        final Path directory = OUTPUT_DIRECTORY.resolve("config-" + keyCount + "-" + sourceCount);
+        Files.createDirectories(directory);
+        final List<StringBuilder> contents = new ArrayList<>(sourceCount);
+        for (int source = 0; source < sourceCount; source++) {
+            contents.add(new StringBuilder());
+        }
+        for (int i = 0; i < keyCount; i++) {
+            final String value = i % PLACEHOLDER_PERIOD == 0 && i > 0 ? "${" + keyOf(i - 1) + "}-suffix" : "value-" + i;
+            contents.get(i % sourceCount).append(keyOf(i)).append('=').append(value).append('\n');
+        }
+        final List<String> locations = new ArrayList<>(sourceCount);
+        for (int source = 0; source < sourceCount; source++) {
+            final Path file = directory.resolve("source-" + source + ".properties");
+            Files.writeString(file, contents.get(source), StandardCharsets.ISO_8859_1);
+            locations.add("file:" + file.toAbsolutePath());
+        }
+        return String.join(",", locations);
+    }
+
+    private static String keyOf(int i) {
+        return "bench.group-" + (i / KEYS_PER_GROUP) + ".key-" + i;
+    }
+
+    /**
+     * @return run duration, uptime and allocated bytes reported by the forked JVM
+     */
+    private static long[] startInForkedJvm(String app, String mode, String configLocations, int run) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ForkedStartup.class.getName(),
+                app,
+                "--spring.config.additional-location=" + configLocations,
+                "--properties.logger.prefix-for-properties=bench,spring,server,logging,properties",
+                "--properties.logger.coloration.disabled=true"));
+        command.addAll(argumentsForMode(mode, run));
+        final Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        String result = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = line.substring(RESULT_PREFIX.length());
+                }
+            }
+        }
+        final int exitCode = process.waitFor();
+        if (exitCode != 0 || result == null) {
+            throw new IllegalStateException("Forked startup failed (exit code " + exitCode + ") for app " + app + " in mode " + mode);
+        }
+        return Arrays.stream(result.split(" ")).mapToLong(Long::parseLong).toArray();
+    }
+
+    private static List<String> argumentsForMode(String mode, int run) {
+        return switch (mode) {
+            case "disabled" -> List.of("--properties.logger.disabled=true");
+            case "slf4j" -> List.of();
+            case "file" -> List.of("--properties.logger.output.type=file",
+                    "--properties.logger.output.file=" + OUTPUT_DIRECTORY.resolve("reports").resolve("report-" + run + ".log").toAbsolutePath());
+            case "async" -> List.of("--properties.logger.output.async=true");
+            default -> throw new IllegalArgumentException("Unknown mode " + mode + " : expected disabled, slf4j, file or async");
+        };
+    }
+
+    /**
+     * Nearest-rank percentiles of one metric
+     */
+    private static String percentiles(List<long[]> measures, int metric) {
+        final long[] sorted = measures.stream().mapToLong(m -> m[metric]).sorted().toArray();
+        return Arrays.stream(new double[]{0.5, 0.9, 0.99, 1.0})
+                .mapToObj(p -> Long.toString(sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)]))
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Entry point of a forked JVM : starts the application once and prints the measures on the standard output
+     */
+    public static final class ForkedStartup {
+
+        public static void main(String[] args) {
+            final boolean servlet = "servlet".equals(args[0]);
+            final String[] applicationArgs = Arrays.copyOfRange(args, 1, args.length);
+            final long start = System.nanoTime();
+            try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(servlet ? WebApplication.class : NonWebApplication.class)
+                    .bannerMode(Banner.Mode.OFF)
+                    .web(servlet ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+                    .properties("server.port=0")
+                    .run(applicationArgs)) {
+                final long runMillis = (System.nanoTime() - start) / 1_000_000;
+                final long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+                System.out.println(String.format(Locale.ROOT, "%s%d %d %d", RESULT_PREFIX, runMillis, uptimeMillis, allocatedBytesOfLiveThreads()));
+            }
+        }
+
+        private static long allocatedBytesOfLiveThreads() {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean) {
+                return Arrays.stream(threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())).filter(b -> b > 0).sum();
+            }
+            throw new UnsupportedOperationException("Allocated bytes per thread are not supported by this JVM");
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class NonWebApplication {
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    static class WebApplication {
+    }
+}